@@ -0,0 +1,63 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.code.activetemplates;
+
+import java.util.Locale;
+
+import com.google.code.activetemplates.xml.XmlSource;
+
+/**
+ * Variant of a template rendered in a particular locale.
+ * 
+ * Template compiler keeps a separate program for every locale of a template,
+ * with messages of the locale resolved when the program is loaded. Variants 
+ * share name and source with the template they are created for.
+ * 
+ * @author sleepless
+ */
+public class LocalizedTemplate implements Template {
+    
+    private final Template template;
+    private final Locale locale;
+    
+    public LocalizedTemplate(Template template, Locale locale) {
+        this.template = template;
+        this.locale = locale;
+    }
+    
+    /**
+     * Returns template this variant is created for
+     * 
+     * @return
+     */
+    public Template getTemplate() {
+        return template;
+    }
+    
+    public Locale getLocale() {
+        return locale;
+    }
+
+    public String getName() {
+        return template.getName();
+    }
+
+    public XmlSource createSource() {
+        return template.createSource();
+    }
+    
+}
@@ -1,45 +1,45 @@
-/*
- * Copyright 2009 Anton Tanasenko
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *    http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-
-package com.google.code.activetemplates;
-
-import com.google.code.activetemplates.xml.XmlSource;
-
-/**
- * This class represents a prebuilt xml template document, which can
- * be compile into a target document
- * 
- * @author sleepless
- */
-public interface Template {
-   
-    /**
-     * Template name
-     * 
-     * @return
-     */
-    public String getName();
-    
-    /**
-     * Creates a new template document source.
-     * This method returns a new source each time it is called, which must
-     * be closed with close method.
-     * 
-     * @return
-     */
-    public XmlSource createSource();
-    
-}
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.code.activetemplates;
+
+import com.google.code.activetemplates.xml.XmlSource;
+
+/**
+ * This class represents a prebuilt xml template document, which can
+ * be compile into a target document
+ * 
+ * @author sleepless
+ */
+public interface Template {
+   
+    /**
+     * Template name
+     * 
+     * @return
+     */
+    public String getName();
+    
+    /**
+     * Creates a new template document source.
+     * This method returns a new source each time it is called, which must
+     * be closed with close method.
+     * 
+     * @return
+     */
+    public XmlSource createSource();
+    
+}
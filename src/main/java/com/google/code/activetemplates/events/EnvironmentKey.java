@@ -0,0 +1,95 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.code.activetemplates.events;
+
+/**
+ * Key of an object kept in event environment.
+ * 
+ * Keys are identified by name and hold objects of a single class. Template
+ * compiler numbers keys kept in static fields of its handlers when handlers
+ * are registered, other keys when an object is first put under them, so 
+ * that environments keep objects in arrays indexed by key ids. Handlers 
+ * should therefore create their keys once, in static fields.
+ * 
+ * @see EventEnvironment
+ * @author sleepless
+ */
+public final class EnvironmentKey<T> {
+    
+    private final String name;
+    private final Class<T> type;
+    
+    private EnvironmentKey(String name, Class<T> type) {
+        this.name = name;
+        this.type = type;
+    }
+    
+    /**
+     * Returns key of specified name
+     * 
+     * @param <T>
+     * @param name
+     * @param clazz - class of objects kept under the key
+     * @return
+     */
+    public static <T> EnvironmentKey<T> get(String name, Class<T> clazz) {
+        if(name == null || clazz == null) {
+            throw new IllegalArgumentException("Environment key needs a name and a class");
+        }
+        return new EnvironmentKey<T>(name, clazz);
+    }
+    
+    /**
+     * Returns key of objects identified by their class
+     * 
+     * @param <T>
+     * @param clazz
+     * @return
+     */
+    public static <T> EnvironmentKey<T> get(Class<T> clazz) {
+        return get(clazz.getName(), clazz);
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * Returns class of objects kept under the key
+     * 
+     * @return
+     */
+    public Class<T> getType() {
+        return type;
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof EnvironmentKey<?> && ((EnvironmentKey<?>) obj).name.equals(name);
+    }
+    
+    @Override
+    public int hashCode() {
+        return name.hashCode();
+    }
+    
+    @Override
+    public String toString() {
+        return name;
+    }
+
+}
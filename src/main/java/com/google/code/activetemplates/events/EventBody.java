@@ -0,0 +1,36 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.code.activetemplates.events;
+
+/**
+ * Children of an element, read once from the event stream, which can be 
+ * queued back for processing any number of times.
+ * 
+ * @see com.google.code.activetemplates.EventStream#readBody()
+ * @author sleepless
+ * 
+ */
+public interface EventBody {
+
+    /**
+     * Returns true if body contains no events
+     * 
+     * @return
+     */
+    public boolean isEmpty();
+
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.code.activetemplates.impl;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Characters;
+import javax.xml.stream.events.EndElement;
+import javax.xml.stream.events.ProcessingInstruction;
+import javax.xml.stream.events.StartElement;
+
+import com.google.code.activetemplates.events.Action;
+
+/**
+ * Internal control event, which is queued in place of an action and carries
+ * a reference to it. Render loop executes the action directly once the 
+ * event is reached, so no action lookup by id is needed.
+ * 
+ * It is a processing instruction, so it does not affect element nesting
+ * when handlers read or skip events around it.
+ * 
+ * @author sleepless
+ */
+class ActionInstruction implements ProcessingInstruction {
+
+    private static final String TARGET = "at-action";
+    
+    private final Action action;
+
+    ActionInstruction(Action action) {
+        this.action = action;
+    }
+
+    Action getAction() {
+        return action;
+    }
+
+    public String getTarget() {
+        return TARGET;
+    }
+
+    public String getData() {
+        return null;
+    }
+
+    public int getEventType() {
+        return PROCESSING_INSTRUCTION;
+    }
+
+    public Location getLocation() {
+        return null;
+    }
+
+    public boolean isProcessingInstruction() {
+        return true;
+    }
+
+    public boolean isStartElement() {
+        return false;
+    }
+
+    public boolean isAttribute() {
+        return false;
+    }
+
+    public boolean isNamespace() {
+        return false;
+    }
+
+    public boolean isEndElement() {
+        return false;
+    }
+
+    public boolean isEntityReference() {
+        return false;
+    }
+
+    public boolean isCharacters() {
+        return false;
+    }
+
+    public boolean isStartDocument() {
+        return false;
+    }
+
+    public boolean isEndDocument() {
+        return false;
+    }
+
+    public StartElement asStartElement() {
+        throw new ClassCastException("Action instruction is not a start element");
+    }
+
+    public EndElement asEndElement() {
+        throw new ClassCastException("Action instruction is not an end element");
+    }
+
+    public Characters asCharacters() {
+        throw new ClassCastException("Action instruction is not characters");
+    }
+
+    public QName getSchemaType() {
+        return null;
+    }
+
+    public void writeAsEncodedUnicode(Writer writer) throws XMLStreamException {
+        try {
+            writer.write("<?");
+            writer.write(TARGET);
+            writer.write("?>");
+        } catch (IOException e) {
+            throw new XMLStreamException(e);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(this);
+    }
+
+    @Override
+    public String toString() {
+        return "<?" + TARGET + "?>";
+    }
+
+}
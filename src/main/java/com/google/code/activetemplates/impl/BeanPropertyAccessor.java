@@ -0,0 +1,192 @@
+package com.google.code.activetemplates.impl;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.expression.AccessException;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.PropertyAccessor;
+import org.springframework.expression.TypedValue;
+
+/**
+ * Reads bean properties through getters resolved once per class and 
+ * property name. 
+ * 
+ * Getters are looked up in the same order as SpEL does: getX(), isX() and 
+ * then public field x, and kept in concurrent maps shared by all renders.
+ * Unlike reflective accessor cached by an expression node, a single 
+ * accessor instance serves objects of any class, so expressions applied to 
+ * objects of different classes, e.g. in loops, do not re-resolve getters.
+ * Classes without a readable property are remembered as well and left 
+ * to other accessors. Writes are left to other accessors.
+ * 
+ * @author sleepless
+ */
+public class BeanPropertyAccessor implements PropertyAccessor {
+
+    // marks properties which can not be read
+    private static final Getter NO_GETTER = new NoGetter();
+    
+    private final ConcurrentMap<Class<?>, ConcurrentMap<String, Getter>> getters = 
+        new ConcurrentHashMap<Class<?>, ConcurrentMap<String, Getter>>();
+
+    @Override
+    public Class<?>[] getSpecificTargetClasses() {
+        return null;
+    }
+
+    @Override
+    public boolean canRead(EvaluationContext context, Object target, String name) throws AccessException {
+        return target != null && getGetter(target.getClass(), name) != NO_GETTER;
+    }
+
+    @Override
+    public TypedValue read(EvaluationContext context, Object target, String name) throws AccessException {
+        if(target == null) {
+            throw new AccessException("Can not read property " + name + " of null");
+        }
+        Getter g = getGetter(target.getClass(), name);
+        if(g == NO_GETTER) {
+            throw new AccessException("No property " + name + " in " + target.getClass().getName());
+        }
+        
+        Object value = g.get(target);
+        return value == null ? TypedValue.NULL : new TypedValue(value);
+    }
+
+    @Override
+    public boolean canWrite(EvaluationContext context, Object target, String name) throws AccessException {
+        return false;
+    }
+
+    @Override
+    public void write(EvaluationContext context, Object target, String name, Object newValue) throws AccessException {
+        throw new AccessException("Property " + name + " is read only");
+    }
+    
+    private Getter getGetter(Class<?> clazz, String name) {
+        ConcurrentMap<String, Getter> m = getters.get(clazz);
+        if(m == null) {
+            m = new ConcurrentHashMap<String, Getter>();
+            ConcurrentMap<String, Getter> om = getters.putIfAbsent(clazz, m);
+            if(om != null) m = om;
+        }
+        
+        Getter g = m.get(name);
+        if(g == null) {
+            g = createGetter(clazz, name);
+            m.putIfAbsent(name, g);
+        }
+        return g;
+    }
+    
+    private static Getter createGetter(Class<?> clazz, String name) {
+        if(name.length() == 0) {
+            return NO_GETTER;
+        }
+        String suffix = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        
+        Method m = findMethod(clazz, "get" + suffix);
+        if(m == null) {
+            m = findMethod(clazz, "is" + suffix);
+            if(m != null && m.getReturnType() != boolean.class && m.getReturnType() != Boolean.class) {
+                m = null;
+            }
+        }
+        if(m != null) {
+            return new MethodGetter(m);
+        }
+        
+        try {
+            Field f = clazz.getField(name);
+            if(!Modifier.isStatic(f.getModifiers())) {
+                if(!Modifier.isPublic(f.getDeclaringClass().getModifiers())) {
+                    f.setAccessible(true);
+                }
+                return new FieldGetter(f);
+            }
+        } catch(NoSuchFieldException e) {
+        } catch(SecurityException e) {
+        }
+        return NO_GETTER;
+    }
+    
+    // public no-arg instance method, made accessible if declared by a non-public class
+    private static Method findMethod(Class<?> clazz, String name) {
+        try {
+            Method m = clazz.getMethod(name);
+            if(Modifier.isStatic(m.getModifiers()) || m.getReturnType() == void.class) {
+                return null;
+            }
+            if(!Modifier.isPublic(m.getDeclaringClass().getModifiers())) {
+                m.setAccessible(true);
+            }
+            return m;
+        } catch(NoSuchMethodException e) {
+            return null;
+        } catch(SecurityException e) {
+            return null;
+        }
+    }
+    
+    private static abstract class Getter {
+        
+        abstract Object get(Object target) throws AccessException;
+        
+    }
+    
+    private static class NoGetter extends Getter {
+        
+        @Override
+        Object get(Object target) throws AccessException {
+            throw new AccessException("No readable property in " + target.getClass().getName());
+        }
+        
+    }
+    
+    private static class MethodGetter extends Getter {
+        
+        private final Method method;
+        
+        MethodGetter(Method method) {
+            this.method = method;
+        }
+        
+        @Override
+        Object get(Object target) throws AccessException {
+            try {
+                return method.invoke(target);
+            } catch(IllegalAccessException e) {
+                throw new AccessException("Unable to access " + method, e);
+            } catch(InvocationTargetException e) {
+                throw new AccessException("Getter " + method + " failed", 
+                        e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+            }
+        }
+        
+    }
+    
+    private static class FieldGetter extends Getter {
+        
+        private final Field field;
+        
+        FieldGetter(Field field) {
+            this.field = field;
+        }
+        
+        @Override
+        Object get(Object target) throws AccessException {
+            try {
+                return field.get(target);
+            } catch(IllegalAccessException e) {
+                throw new AccessException("Unable to access " + field, e);
+            }
+        }
+        
+    }
+
+}
@@ -1,171 +1,652 @@
-/*
- * Copyright 2009 Anton Tanasenko
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *    http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-
-package com.google.code.activetemplates.impl;
-
-import java.util.Deque;
-import java.util.LinkedList;
-
-import javax.xml.stream.XMLEventFactory;
-import javax.xml.stream.XMLEventReader;
-import javax.xml.stream.XMLEventWriter;
-import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.XMLEvent;
-
-import org.springframework.expression.EvaluationContext;
-import org.springframework.expression.Expression;
-import org.springframework.expression.ExpressionParser;
-import org.springframework.expression.ParserContext;
-import org.springframework.expression.common.TemplateParserContext;
-
-class CompileContext {
-    
-    private static final ParserContext TEMPLATE_PARSER_CONTEXT = 
-        new TemplateParserContext("${", "}");
-
-    private XMLEventReader reader;
-    private XMLEventWriter writer;
-    private XMLEventFactory elementFactory;
-    
-    private Deque<XMLEvent> globalQueue;
-    private Deque<XMLEvent> eventQueue;
-    private Deque<EventEnvironmentImpl> env;
-
-    private EventComponentFactory eComponentFactory;
-
-    private ActionRegistry actionRegistry;
-    private ExpressionParser expressionParser;
-    private EvaluationContext evaluationContext;
-    
-    public CompileContext(XMLEventReader r, XMLEventWriter w, XMLEventFactory ef, EventComponentFactory ecf, ExpressionParser eParser, EvaluationContext eContext) {
-        reader         = r;
-        writer         = w;
-        elementFactory = ef;
-        eComponentFactory = ecf;
-        expressionParser  = eParser;
-        evaluationContext = eContext;
-        
-        globalQueue    = new LinkedList<XMLEvent>();
-        eventQueue     = new LinkedList<XMLEvent>();
-        env            = new LinkedList<EventEnvironmentImpl>();
-        actionRegistry = new ActionRegistry();
-        
-        env.push(new EventEnvironmentImpl());
-    }
-
-    public boolean hasNextEvent(){
-        return globalQueue.size() > 0 || reader.hasNext();
-    }
-    
-    public XMLEvent nextEvent() throws XMLStreamException {
-        XMLEvent e;
-        if(globalQueue.size() > 0) {
-            e = globalQueue.poll();
-        } else {
-            e = reader.nextEvent();
-        }
-        
-        if(env.peek().getInnerCount() < 0) {
-            endEnvironment();
-        }
-
-        if(e.isStartElement()) {
-            env.peek().incInnerCount();
-        } else if(e.isEndElement()) {
-            env.peek().decInnerCount();
-        }
-        
-        //System.out.println("Next event: " + e);
-        return e;
-    }
-    
-    public XMLEvent peekEvent() throws XMLStreamException {
-        if(globalQueue.size() > 0) return globalQueue.peek();
-        return reader.peek();
-    }
-    
-    public void queueEvent(XMLEvent e) {
-        //System.out.println("Queuing: " + e);
-        eventQueue.offer(e);
-    }
-    
-    public void flushEventQueue() {
-        if(!eventQueue.isEmpty()) {
-            //System.out.println("Flushing queue");
-            //System.out.println("  Event queue: " + eventQueue);
-            //System.out.println("  Global queue: " + globalQueue);
-            while(!eventQueue.isEmpty()) {
-                XMLEvent e = eventQueue.removeLast();
-                globalQueue.addFirst(e);
-            }
-            //System.out.println("  Global queue after: " + globalQueue);
-        }
-    }
-
-    public XMLEventWriter getWriter() {
-        return writer;
-    }
-
-    public XMLEventFactory getElementFactory() {
-        return elementFactory;
-    }
-    
-    public ActionRegistry getActionRegistry() {
-        return actionRegistry;
-    }
-    
-    public EventComponentFactory getComponentFactory() {
-        return eComponentFactory;
-    }
-
-    public EvaluationContext getEvaluationContext(){
-        return evaluationContext;
-    }
-    
-    public <T> T parseExpression(String expression, Class<T> clazz) {
-        Expression expr = expressionParser.parseExpression(expression);
-        return expr.getValue(getEvaluationContext(), clazz);
-    }
-    
-    public <T> T parseExpression(String expression, Object rootObject, Class<T> clazz) {
-        Expression expr = expressionParser.parseExpression(expression);
-        return expr.getValue(getEvaluationContext(), rootObject, clazz);
-    }
-    
-    public <T> T parseTemplateExpression(String expression, Class<T> clazz) {
-        Expression expr = expressionParser.parseExpression(expression, TEMPLATE_PARSER_CONTEXT);
-        return expr.getValue(getEvaluationContext(), clazz);
-    }
-    
-    public void setExpressionValue(String expression, Object value) {
-        Expression expr = expressionParser.parseExpression(expression);
-        expr.setValue(getEvaluationContext(), value);
-    }
-
-    public EventEnvironmentImpl getEventEnvironment() {
-        EventEnvironmentImpl e = env.peek();
-        if(e.getInnerCount() > 0) {
-            env.push(new EventEnvironmentImpl(e));
-            e = env.peek();
-        }
-        return e;
-    }
-    
-    private void endEnvironment() {
-        env.pop();
-    }
-
-}
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.code.activetemplates.impl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.Namespace;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+import org.springframework.context.MessageSource;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.common.ExpressionUtils;
+
+import com.google.code.activetemplates.events.EventBody;
+import com.google.code.activetemplates.spi.CompiledExpression;
+import com.google.code.activetemplates.spi.RenderContext;
+import com.google.code.activetemplates.xml.SerializingEventWriter;
+
+/**
+ * State of a render. 
+ * 
+ * Contexts are pooled by the compiler and reused by consecutive renders: 
+ * begin() prepares context for a render and end() releases everything the render 
+ * referenced, while queues, environments, scratch lists and event wrappers 
+ * are kept for the next one.
+ * 
+ * Compiled plans render through the same context, which is what their 
+ * nodes see as a render context.
+ */
+class CompileContext implements RenderContext {
+
+    /**
+     * Value of loop invariants which are not evaluated yet
+     */
+    static final Object NO_VALUE = new Object();
+    
+    private TemplateProgram program;
+    private Cursor programCursor;
+    private int lastIndex;
+    private XMLEventWriter writer;
+    private SerializingEventWriter segmentWriter;
+    private XMLEventFactory elementFactory;
+    
+    // queues hold xml events and cursors over replayed program ranges
+    private Deque<Object> globalQueue;
+    private Deque<Object> eventQueue;
+    private EventEnvironmentImpl environment;
+    
+    // scratch lists reused for every start element
+    private List<Namespace> elementNamespaces;
+    private List<Attribute> elementAttributes;
+    private List<Attribute> outputAttributes;
+    
+    // event wrappers reused between handler calls
+    private AttributeEventImpl attributeEvent;
+    private StartElementEventImpl startElementEvent;
+    private EndElementEventImpl endElementEvent;
+    private ActionEventImpl actionEvent;
+
+    private EventComponentFactory eComponentFactory;
+
+    private ActionRegistry actionRegistry;
+    private ExpressionCache expressionCache;
+    private RenderEvaluationContext evaluationContext;
+    
+    // values of loop invariant expressions of a render plan
+    private Object[] invariants;
+    
+    // results of pure expressions and templates evaluated by the render
+    private PureExpressions pureExpressions;
+    private Map<String, Object> expressionMemo;
+    private Map<String, Object> templateMemo;
+    
+    private MessageSource messageSource;
+    private Locale locale;
+    
+    public CompileContext(XMLEventFactory ef, EventComponentFactory ecf, RenderEvaluationContext eContext, 
+            EnvironmentKeys keys) {
+        programCursor  = new Cursor(0, 0);
+        lastIndex      = -1;
+        elementFactory = ef;
+        eComponentFactory = ecf;
+        evaluationContext = eContext;
+        
+        globalQueue    = new ArrayDeque<Object>();
+        eventQueue     = new ArrayDeque<Object>();
+        environment    = new EventEnvironmentImpl(keys);
+        
+        elementNamespaces = new ArrayList<Namespace>();
+        elementAttributes = new ArrayList<Attribute>();
+        outputAttributes  = new ArrayList<Attribute>();
+        
+        attributeEvent    = new AttributeEventImpl();
+        startElementEvent = new StartElementEventImpl();
+        endElementEvent   = new EndElementEventImpl();
+        actionEvent       = new ActionEventImpl();
+        
+        actionRegistry = new ActionRegistry();
+        invariants     = new Object[0];
+        expressionMemo = new HashMap<String, Object>();
+        templateMemo   = new HashMap<String, Object>();
+    }
+    
+    /**
+     * Prepares context for rendering specified program
+     * 
+     * @param p
+     * @param w
+     * @param eCache
+     * @param eBase - evaluation context shared by all renders
+     * @param model - root object of expressions
+     * @param pe - decides which results are memoized, or null to memoize none
+     * @param ms - source of messages, or null
+     * @param l - locale of the render
+     */
+    public void begin(TemplateProgram p, XMLEventWriter w, ExpressionCache eCache, EvaluationContext eBase, Object model, 
+            PureExpressions pe, MessageSource ms, Locale l) {
+        program        = p;
+        programCursor.position = 0;
+        programCursor.end      = p.size();
+        lastIndex      = -1;
+        writer         = w;
+        segmentWriter  = w instanceof SerializingEventWriter ? (SerializingEventWriter) w : null;
+        expressionCache = eCache;
+        evaluationContext.reset(eBase, model);
+        pureExpressions = pe;
+        messageSource   = ms;
+        locale          = l;
+        
+        environment.push();
+    }
+    
+    /**
+     * Releases everything referenced by the last render, 
+     * so that context can be reused
+     */
+    public void end() {
+        program       = null;
+        writer        = null;
+        segmentWriter = null;
+        evaluationContext.reset(null, null);
+        pureExpressions = null;
+        messageSource   = null;
+        locale          = null;
+        expressionMemo.clear();
+        templateMemo.clear();
+        
+        globalQueue.clear();
+        eventQueue.clear();
+        while(environment.getDepth() > 0) {
+            environment.pop();
+        }
+        elementNamespaces.clear();
+        elementAttributes.clear();
+        outputAttributes.clear();
+        actionRegistry.clear();
+        Arrays.fill(invariants, null);
+    }
+
+    /**
+     * Limits events read from the program to specified range, so that 
+     * a part of compiled plan can be interpreted
+     * 
+     * @param from
+     * @param to - index after the last event of the range
+     */
+    public void setProgramRange(int from, int to) {
+        programCursor.position = from;
+        programCursor.end      = to;
+        lastIndex = -1;
+    }
+    
+    /**
+     * Returns index of the next event read from the program
+     * 
+     * @return
+     */
+    public int getProgramPosition() {
+        return programCursor.position;
+    }
+    
+    /**
+     * Returns index after the last event read from the program
+     * 
+     * @return
+     */
+    public int getProgramEnd() {
+        return programCursor.end;
+    }
+    
+    public boolean hasNextEvent(){
+        return globalQueue.size() > 0 || programCursor.position < programCursor.end;
+    }
+    
+    public XMLEvent nextEvent() throws XMLStreamException {
+        XMLEvent e;
+        Cursor c = getCursor();
+        if(c != null) {
+            lastIndex = c.position;
+            e = program.getEvent(c.position++);
+            if(c.position >= c.end && c != programCursor) {
+                globalQueue.poll();
+            }
+        } else {
+            e = (XMLEvent) globalQueue.poll();
+            lastIndex = -1;
+        }
+        
+        enter(e);
+        
+        //System.out.println("Next event: " + e);
+        return e;
+    }
+    
+    // tracks element nesting of current environment
+    private void enter(XMLEvent e) {
+        if(environment.getInnerCount() < 0) {
+            environment.pop();
+        }
+
+        if(e.isStartElement()) {
+            environment.incInnerCount();
+        } else if(e.isEndElement()) {
+            environment.decInnerCount();
+        }
+    }
+    
+    public XMLEvent peekEvent() throws XMLStreamException {
+        Cursor c = getCursor();
+        if(c != null) {
+            return c.position < c.end ? program.getEvent(c.position) : null;
+        }
+        return (XMLEvent) globalQueue.peek();
+    }
+    
+    // returns cursor next event is read from, or null if it is a queued event
+    private Cursor getCursor() {
+        if(globalQueue.isEmpty()) {
+            return programCursor;
+        }
+        Object o = globalQueue.peek();
+        return o instanceof Cursor ? (Cursor) o : null;
+    }
+    
+    public TemplateProgram getProgram() {
+        return program;
+    }
+    
+    /**
+     * Returns program index of the last event returned by nextEvent,
+     * or -1 if it came from the event queue
+     * 
+     * @return
+     */
+    public int getLastIndex() {
+        return lastIndex;
+    }
+    
+    /**
+     * Skips children of the start element at specified program index by
+     * jumping straight to its end element. This is only possible when
+     * nothing was read or queued after that start element.
+     * 
+     * @param startIndex
+     * @param keepEnd - whether to leave end element for later processing
+     * @return false if the jump is not possible and events should be skipped one by one
+     */
+    public boolean skipElement(int startIndex, boolean keepEnd) {
+        Cursor c = getCursor();
+        if(startIndex < 0 || c == null || startIndex + 1 != c.position) {
+            return false;
+        }
+        int end = program.getEnd(startIndex);
+        if(end < 0 || end >= c.end) {
+            return false;
+        }
+        
+        // children are balanced, so only the end element affects environment
+        if(keepEnd) {
+            c.position = end;
+        } else {
+            c.position = end + 1;
+            lastIndex = end;
+            environment.decInnerCount();
+            if(c.position >= c.end && c != programCursor) {
+                globalQueue.poll();
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Reads children of the start element, that was just read from the 
+     * program, into a body, leaving its end element for later processing.
+     * Children are not copied, body only records their range.
+     * 
+     * @param se - start element, as seen by its handler
+     * @return null if children are not read from the program
+     */
+    public EventBody readBody(StartElement se) {
+        int start = lastIndex;
+        if(start < 0 || !program.getEvent(start).isStartElement()
+                || !program.getEvent(start).asStartElement().getName().equals(se.getName())
+                || !skipElement(start, true)) {
+            return null;
+        }
+        return new EventBodyImpl(program, start + 1, program.getEnd(start));
+    }
+    
+    /**
+     * Queues events of the body. Program ranges are replayed through a 
+     * new cursor, so the same body can be queued any number of times.
+     * 
+     * @param body
+     */
+    public void queueBody(EventBody body) {
+        EventBodyImpl b = (EventBodyImpl) body;
+        if(b.getProgram() == null) {
+            eventQueue.addAll(b.getEvents());
+        } else if(b.getProgram() != program) {
+            throw new IllegalArgumentException("Body belongs to another template");
+        } else if(!b.isEmpty()) {
+            eventQueue.offer(new Cursor(b.getStart(), b.getEnd()));
+        }
+    }
+    
+    /**
+     * Writes pre-encoded segment of static events starting at current 
+     * position straight to the output and moves past it. This is only 
+     * possible when output is serialized directly and next event is 
+     * read from the program.
+     * 
+     * @return false if there is no segment to write
+     * @throws XMLStreamException
+     */
+    public boolean writeSegment() throws XMLStreamException {
+        Cursor c = getCursor();
+        if(segmentWriter == null || c == null || c.position >= c.end) {
+            return false;
+        }
+        SerializingEventWriter.Segment s = program.getSegment(c.position);
+        if(s == null || c.position + s.size() > c.end) {
+            return false;
+        }
+        
+        segmentWriter.writeSegment(s);
+        for(int i = 0; i < s.size(); i++) {
+            enter(s.getEvent(i));
+        }
+        c.position += s.size();
+        lastIndex = c.position - 1;
+        if(c.position >= c.end && c != programCursor) {
+            globalQueue.poll();
+        }
+        return true;
+    }
+    
+    public void queueEvent(XMLEvent e) {
+        //System.out.println("Queuing: " + e);
+        eventQueue.offer(e);
+    }
+    
+    public void flushEventQueue() {
+        if(!eventQueue.isEmpty()) {
+            //System.out.println("Flushing queue");
+            //System.out.println("  Event queue: " + eventQueue);
+            //System.out.println("  Global queue: " + globalQueue);
+            while(!eventQueue.isEmpty()) {
+                Object e = eventQueue.removeLast();
+                globalQueue.addFirst(e);
+            }
+            //System.out.println("  Global queue after: " + globalQueue);
+        }
+    }
+
+    /**
+     * Returns empty scratch list for namespaces of a start element.
+     * Contents are only valid until the next start element is processed.
+     * 
+     * @return
+     */
+    public List<Namespace> getElementNamespaces() {
+        elementNamespaces.clear();
+        return elementNamespaces;
+    }
+    
+    /**
+     * Returns empty scratch list for attributes of a start element.
+     * Contents are only valid until the next start element is processed.
+     * 
+     * @return
+     */
+    public List<Attribute> getElementAttributes() {
+        elementAttributes.clear();
+        return elementAttributes;
+    }
+    
+    /**
+     * Returns empty scratch list for processed attributes of a start element.
+     * Contents are only valid until the next start element is processed.
+     * 
+     * @return
+     */
+    public List<Attribute> getOutputAttributes() {
+        outputAttributes.clear();
+        return outputAttributes;
+    }
+
+    public XMLEventWriter getWriter() {
+        return writer;
+    }
+
+    public XMLEventFactory getElementFactory() {
+        return elementFactory;
+    }
+    
+    public void write(XMLEvent e) throws XMLStreamException {
+        writer.add(e);
+    }
+    
+    public <T> T unwrap(Class<T> clazz) {
+        return clazz.isInstance(this) ? clazz.cast(this) : null;
+    }
+    
+    public ActionRegistry getActionRegistry() {
+        return actionRegistry;
+    }
+    
+    public EventComponentFactory getComponentFactory() {
+        return eComponentFactory;
+    }
+
+    public Locale getLocale() {
+        return locale;
+    }
+    
+    public String getMessage(String code, Object[] args, String defaultMessage) {
+        return getMessage(messageSource, locale, code, args, defaultMessage);
+    }
+    
+    /**
+     * Resolves message in specified locale. Message which is not found 
+     * and has no default fails with NoSuchMessageException
+     * 
+     * @param ms - source of messages, or null if only defaults are available
+     * @param locale
+     * @param code
+     * @param args
+     * @param defaultMessage
+     * @return
+     */
+    static String getMessage(MessageSource ms, Locale locale, String code, Object[] args, String defaultMessage) {
+        if(ms == null) {
+            if(defaultMessage == null) {
+                throw new IllegalStateException("No message source to resolve message " + code);
+            }
+            return defaultMessage;
+        }
+        return defaultMessage == null 
+                ? ms.getMessage(code, args, locale) 
+                : ms.getMessage(code, args, defaultMessage, locale);
+    }
+    
+    /**
+     * Makes sure specified number of loop invariant slots is available
+     * 
+     * @param count
+     */
+    public void prepareInvariants(int count) {
+        if(invariants.length < count) {
+            invariants = new Object[count];
+        }
+    }
+    
+    /**
+     * Returns value of loop invariant expression in specified slot,
+     * or NO_VALUE if it is not evaluated since loop entry
+     * 
+     * @param slot
+     * @return
+     */
+    public Object getInvariant(int slot) {
+        return invariants[slot];
+    }
+    
+    public void setInvariant(int slot, Object value) {
+        invariants[slot] = value;
+    }
+    
+    /**
+     * Forgets values of loop invariants in specified slots,
+     * called when a loop is entered
+     * 
+     * @param slots
+     */
+    public void clearInvariants(int[] slots) {
+        for(int slot: slots) {
+            invariants[slot] = NO_VALUE;
+        }
+    }
+
+    public EvaluationContext getEvaluationContext(){
+        return evaluationContext;
+    }
+    
+    public <T> T parseExpression(String expression, Class<T> clazz) {
+        if(pureExpressions != null && pureExpressions.isPure(expression)) {
+            return memoize(expressionMemo, expression, false, clazz);
+        }
+        CompiledExpression expr = expressionCache.getExpression(expression);
+        return expr.getValue(getEvaluationContext(), clazz);
+    }
+    
+    public <T> T parseExpression(String expression, Object rootObject, Class<T> clazz) {
+        CompiledExpression expr = expressionCache.getExpression(expression);
+        return expr.getValue(getEvaluationContext(), rootObject, clazz);
+    }
+    
+    public <T> T parseTemplateExpression(String expression, Class<T> clazz) {
+        if(pureExpressions != null && pureExpressions.isPureTemplate(expression)) {
+            return memoize(templateMemo, expression, true, clazz);
+        }
+        CompiledExpression expr = expressionCache.getTemplate(expression);
+        return expr.getValue(getEvaluationContext(), clazz);
+    }
+    
+    // returns memoized result of expression, evaluating it on first use.
+    // results are kept as evaluated and converted for every use, 
+    // as uses may expect different types
+    private <T> T memoize(Map<String, Object> memo, String expression, boolean template, Class<T> clazz) {
+        Object value = memo.get(expression);
+        if(value == null && !memo.containsKey(expression)) {
+            CompiledExpression expr = template 
+                    ? expressionCache.getTemplate(expression) 
+                    : expressionCache.getExpression(expression);
+            value = expr.getValue(getEvaluationContext(), Object.class);
+            memo.put(expression, value);
+        }
+        return ExpressionUtils.convert(getEvaluationContext(), value, clazz);
+    }
+    
+    public void setExpressionValue(String expression, Object value) {
+        CompiledExpression expr = expressionCache.getExpression(expression);
+        expr.setValue(getEvaluationContext(), value);
+    }
+    
+    /**
+     * Returns slot of local variable referenced by expression, 
+     * or -1 if expression is not a plain variable reference
+     * 
+     * @param expression
+     * @return
+     */
+    public int getVariableSlot(String expression) {
+        String name = LocalVariables.getName(expression);
+        return name == null ? -1 : evaluationContext.getLocals().declare(name);
+    }
+    
+    /**
+     * Stores value of local variable in specified slot
+     * 
+     * @param slot
+     * @param value
+     * @return previous value, which restores variable when stored back
+     */
+    public Object setVariable(int slot, Object value) {
+        return evaluationContext.setLocal(slot, value);
+    }
+
+    // a frame is started for the first element which asks for environment
+    // below the element of the current frame
+    public EventEnvironmentImpl getEventEnvironment() {
+        if(environment.getInnerCount() > 0) {
+            environment.push();
+        }
+        return environment;
+    }
+    
+    /**
+     * Returns number of environment frames, so that frames started 
+     * afterwards can be released by restoreEnvironment
+     * 
+     * @return
+     */
+    public int getEnvironmentDepth() {
+        return environment.getDepth();
+    }
+    
+    public void restoreEnvironment(int depth) {
+        while(environment.getDepth() > depth) {
+            environment.pop();
+        }
+    }
+    
+    // wrappers are only reused if handler calls do not nest
+    
+    public AttributeEventImpl getAttributeEvent() {
+        return attributeEvent.isInUse() ? new AttributeEventImpl() : attributeEvent;
+    }
+    
+    public StartElementEventImpl getStartElementEvent() {
+        return startElementEvent.isInUse() ? new StartElementEventImpl() : startElementEvent;
+    }
+    
+    public EndElementEventImpl getEndElementEvent() {
+        return endElementEvent.isInUse() ? new EndElementEventImpl() : endElementEvent;
+    }
+    
+    public ActionEventImpl getActionEvent() {
+        return actionEvent.isInUse() ? new ActionEventImpl() : actionEvent;
+    }
+    
+    // reads program events in [position, end)
+    private static class Cursor {
+        
+        int position;
+        int end;
+        
+        Cursor(int position, int end) {
+            this.position = position;
+            this.end = end;
+        }
+        
+    }
+
+}
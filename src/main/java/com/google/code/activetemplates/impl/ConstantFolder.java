@@ -0,0 +1,496 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.code.activetemplates.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import javax.xml.namespace.QName;
+
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.Characters;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+import org.springframework.context.MessageSource;
+import org.springframework.expression.EvaluationContext;
+
+import com.google.code.activetemplates.events.AttributeHandler;
+import com.google.code.activetemplates.events.ElementHandler;
+import com.google.code.activetemplates.lib.attributes.IfAt;
+import com.google.code.activetemplates.lib.elements.EachEl;
+import com.google.code.activetemplates.lib.elements.MessageEl;
+import com.google.code.activetemplates.lib.elements.NobrEl;
+import com.google.code.activetemplates.lib.elements.conditional.ConditionalEl;
+import com.google.code.activetemplates.lib.elements.conditional.ElseEl;
+import com.google.code.activetemplates.lib.elements.conditional.IfEl;
+
+/**
+ * Folds constant expressions of loaded template events, before a program 
+ * is built from them.
+ * 
+ * Expressions are constant if they reference nothing which may change 
+ * between renders: literals and declared global variables, unless a loop 
+ * of the template assigns a variable of the same name. Constant text and 
+ * attribute templates of plain elements are replaced with their values, 
+ * elements with a constant at:if attribute are either kept without it or 
+ * removed. Branches of at:conditional elements
+ * with constant decisions are removed or unwrapped, a branch is kept as a
+ * constant at:if only when a following at:else still needs its value. 
+ * Conditionals left without branches are unwrapped as well. Conditionals 
+ * followed by an at:else are kept as they are, since the else reads their
+ * scope. Messages of localized templates are resolved, if their arguments 
+ * are constant.
+ * Adjacent literal text is merged afterwards.
+ * 
+ * Text following at:nobr is never folded or merged, and removed elements 
+ * right after at:nobr leave empty text behind, so that whitespace is 
+ * stripped exactly as before. Expressions which fail to evaluate are left
+ * to fail at render time.
+ * 
+ * Folders keep state of the events being folded and are not shared 
+ * between threads.
+ * 
+ * @author sleepless
+ */
+class ConstantFolder {
+
+    private final Handlers h;
+    private final XMLEventFactory ef;
+    private final ExpressionCache expressions;
+    private final EvaluationContext context;
+    private final PureExpressions constants;
+    private final MessageSource messageSource;
+    private final Locale locale;
+    
+    // variables assigned by loops of the folded template
+    private final Set<String> assigned = new HashSet<String>();
+    
+    /**
+     * @param h
+     * @param ef
+     * @param expressions - cache to parse expressions with
+     * @param context - context to evaluate constant expressions in
+     * @param constants - decides which expressions are constant
+     * @param ms - source of messages, or null
+     * @param locale - locale of the template, or null if messages should be
+     *  resolved at render time
+     */
+    public ConstantFolder(Handlers h, XMLEventFactory ef, ExpressionCache expressions, 
+            EvaluationContext context, PureExpressions constants, MessageSource ms, Locale locale) {
+        this.h = h;
+        this.ef = ef;
+        this.expressions = expressions;
+        this.context = context;
+        this.constants = constants;
+        this.messageSource = ms;
+        this.locale = locale;
+    }
+    
+    /**
+     * Returns folded copy of template events
+     * 
+     * @param events
+     * @return
+     */
+    public List<XMLEvent> fold(List<XMLEvent> events) {
+        XMLEvent[] in = events.toArray(new XMLEvent[events.size()]);
+        int[] ends = TemplateProgram.computeEnds(in);
+        
+        assigned.clear();
+        for(XMLEvent e: in) {
+            if(e.isStartElement() && isElement(e, EachEl.class)) {
+                for(QName attr: new QName[]{ EachEl.ATTR_VALUE, EachEl.ATTR_INDEX, EachEl.ATTR_KEY }) {
+                    Attribute a = e.asStartElement().getAttributeByName(attr);
+                    if(a != null) {
+                        assigned.add(a.getValue().trim());
+                    }
+                }
+            }
+        }
+        
+        List<XMLEvent> out = new ArrayList<XMLEvent>(in.length);
+        int i = 0;
+        while(i < in.length) {
+            i = fold(in, ends, i, out);
+        }
+        return merge(out);
+    }
+    
+    // folds event at specified index together with its children,
+    // returns index of the next event
+    private int fold(XMLEvent[] in, int[] ends, int index, List<XMLEvent> out) {
+        XMLEvent e = in[index];
+        if(e.isCharacters()) {
+            out.add(isNobrEnd(last(out)) ? e : text(e.asCharacters()));
+            return index + 1;
+        }
+        
+        int end = ends[index];
+        if(!e.isStartElement() || end < 0) {
+            out.add(e);
+            return index + 1;
+        }
+        
+        StartElement se = e.asStartElement();
+        ElementHandler eh = h.getElementHandler(se.getName());
+        if(eh == null) {
+            element(in, ends, index, out);
+        } else if(eh.getClass() == ConditionalEl.class) {
+            conditional(in, ends, index, out, isElseFollowing(in, ends, index));
+        } else if(eh.getClass() == MessageEl.class && message(se, out)) {
+            // message was resolved
+        } else {
+            out.add(e);
+            children(in, ends, index, out);
+            out.add(in[end]);
+        }
+        return end + 1;
+    }
+    
+    private void children(XMLEvent[] in, int[] ends, int index, List<XMLEvent> out) {
+        int i = index + 1;
+        while(i < ends[index]) {
+            i = fold(in, ends, i, out);
+        }
+    }
+    
+    private XMLEvent text(Characters c) {
+        if(c.isCData() || c.isIgnorableWhiteSpace() || !TemplateProgram.isTemplate(c.getData())) {
+            return c;
+        }
+        String value = evaluateTemplate(c.getData());
+        return value == null ? c : ef.createCharacters(value);
+    }
+    
+    // plain element, its templated attributes and at:if are folded
+    private void element(XMLEvent[] in, int[] ends, int index, List<XMLEvent> out) {
+        StartElement se = in[index].asStartElement();
+        
+        List<Attribute> attributes = new ArrayList<Attribute>();
+        boolean changed = false;
+        
+        @SuppressWarnings("unchecked")
+        Iterator<Attribute> it = se.getAttributes();
+        while(it.hasNext()) {
+            Attribute a = it.next();
+            AttributeHandler ah = h.getAttributeHandler(a.getName());
+            
+            if(ah != null && ah.getClass() == IfAt.class) {
+                Boolean cond = evaluateCondition(a.getValue());
+                if(cond != null) {
+                    if(!cond.booleanValue()) {
+                        removed(out);
+                        return;
+                    }
+                    changed = true;
+                    continue;
+                }
+            } else if(ah == null && TemplateProgram.isTemplate(a.getValue())) {
+                String value = evaluateTemplate(a.getValue());
+                if(value != null) {
+                    a = ef.createAttribute(a.getName(), value);
+                    changed = true;
+                }
+            }
+            attributes.add(a);
+        }
+        
+        out.add(changed ? ef.createStartElement(se.getName(), attributes.iterator(), se.getNamespaces()) : se);
+        children(in, ends, index, out);
+        out.add(in[ends[index]]);
+    }
+    
+    // conditional followed by an at:else is kept with its branches, as the 
+    // else reads the value its last branch leaves in the scope
+    private void conditional(XMLEvent[] in, int[] ends, int index, List<XMLEvent> out, boolean keep) {
+        int end = ends[index];
+        int mark = out.size();
+        out.add(in[index]);
+        
+        // branches share their values through the scope of the conditional, 
+        // so only branches which are its direct children are folded
+        boolean foldable = !keep;
+        for(int i = index + 1; i < end && foldable; i = next(in, ends, i)) {
+            if(in[i].isStartElement() && !isBranch(in[i]) && containsBranches(in, i, ends[i])) {
+                foldable = false;
+            }
+        }
+        
+        boolean known = false;
+        boolean value = false;
+        int i = index + 1;
+        while(i < end) {
+            if(!foldable || !isBranch(in[i])) {
+                i = fold(in, ends, i, out);
+                continue;
+            }
+            
+            StartElement se = in[i].asStartElement();
+            Boolean decision = decide(se, known, value);
+            if(decision == null) {
+                out.add(se);
+                children(in, ends, i, out);
+                out.add(in[ends[i]]);
+                known = false;
+                i = ends[i] + 1;
+                continue;
+            }
+            
+            boolean cond = decision.booleanValue();
+            int next = ends[i] + 1;
+            while(next < end && !isBranch(in[next])) {
+                next = next(in, ends, next);
+            }
+            
+            if(next < end && isElse(in[next]) && decide(in[next].asStartElement(), true, cond) == null) {
+                // following else needs value of this branch
+                branch(in, ends, i, out, cond, cond);
+            } else if(cond && containsBranches(in, i + 1, ends[i])) {
+                branch(in, ends, i, out, true, true);
+            } else if(cond) {
+                removed(out);
+                children(in, ends, i, out);
+                removed(out);
+            } else {
+                removed(out);
+            }
+            
+            known = true;
+            value = cond;
+            i = ends[i] + 1;
+        }
+        
+        if(!keep && !containsBranches(out, mark + 1, out.size()) 
+                && !in[index].asStartElement().getNamespaces().hasNext()) {
+            out.remove(mark);
+            if(mark > 0 && isNobrEnd(out.get(mark - 1))) {
+                out.add(mark, ef.createCharacters(""));
+            }
+            removed(out);
+        } else {
+            out.add(in[end]);
+        }
+    }
+    
+    // resolves message element into text, returns false if message 
+    // can only be resolved at render time
+    private boolean message(StartElement se, List<XMLEvent> out) {
+        Attribute code = se.getAttributeByName(MessageEl.ATTR_CODE);
+        Attribute arguments = se.getAttributeByName(MessageEl.ATTR_ARGUMENTS);
+        Attribute defaultMessage = se.getAttributeByName(MessageEl.ATTR_DEFAULT);
+        if(locale == null || code == null) {
+            return false;
+        }
+        
+        String message;
+        try {
+            Object[] args = null;
+            if(arguments != null) {
+                if(!constants.isPure(arguments.getValue()) || isAssigned(arguments.getValue())) {
+                    return false;
+                }
+                args = MessageEl.getArguments(
+                        expressions.getExpression(arguments.getValue()).getValue(context, Object.class));
+            }
+            message = CompileContext.getMessage(messageSource, locale, code.getValue(), args, 
+                    defaultMessage == null ? null : defaultMessage.getValue());
+        } catch(RuntimeException e) {
+            return false;
+        }
+        
+        if(message == null) {
+            message = "";
+        }
+        if(TemplateProgram.isTemplate(message)) {
+            return false;
+        }
+        removed(out);
+        out.add(ef.createCharacters(message));
+        return true;
+    }
+    
+    // writes branch at specified index as an at:if with constant condition
+    private void branch(XMLEvent[] in, int[] ends, int index, List<XMLEvent> out, boolean cond, boolean body) {
+        StartElement se = in[index].asStartElement();
+        String prefix = se.getName().getPrefix();
+        
+        Attribute a = ef.createAttribute(IfEl.ATTR_CONDITION, String.valueOf(cond));
+        out.add(ef.createStartElement(prefix, IfEl.ELEMENT.getNamespaceURI(), IfEl.ELEMENT.getLocalPart(), 
+                Collections.singletonList(a).iterator(), se.getNamespaces()));
+        if(body) {
+            children(in, ends, index, out);
+        }
+        out.add(ef.createEndElement(prefix, IfEl.ELEMENT.getNamespaceURI(), IfEl.ELEMENT.getLocalPart()));
+    }
+    
+    // returns constant decision of a branch, or null if it is only known at
+    // render time. known and value describe decision of the previous branch
+    private Boolean decide(StartElement se, boolean known, boolean value) {
+        if(!isElse(se)) {
+            Attribute a = se.getAttributeByName(IfEl.ATTR_CONDITION);
+            return a == null ? null : evaluateCondition(a.getValue());
+        }
+        
+        if(!known) {
+            return null;
+        } else if(value) {
+            return Boolean.FALSE;
+        }
+        Attribute a = se.getAttributeByName(ElseEl.ATTR_CONDITION);
+        return a == null ? Boolean.TRUE : evaluateCondition(a.getValue());
+    }
+    
+    private Boolean evaluateCondition(String expression) {
+        if(!constants.isPure(expression) || isAssigned(expression)) {
+            return null;
+        }
+        try {
+            return expressions.getExpression(expression).getValue(context, Boolean.class);
+        } catch(RuntimeException e) {
+            return null;
+        }
+    }
+    
+    // returns value of constant template, or null if it is not constant
+    private String evaluateTemplate(String template) {
+        if(!constants.isPureTemplate(template) || isAssigned(template)) {
+            return null;
+        }
+        String value;
+        try {
+            value = expressions.getTemplate(template).getValue(context, String.class);
+        } catch(RuntimeException e) {
+            return null;
+        }
+        if(value == null) {
+            value = "";
+        }
+        // value must not be taken for a template itself
+        return TemplateProgram.isTemplate(value) ? null : value;
+    }
+    
+    // whether expression may read a variable assigned by a loop
+    private boolean isAssigned(String expression) {
+        for(String variable: assigned) {
+            if(expression.indexOf(variable) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // element was removed from output. text after at:nobr is stripped, 
+    // so that removed element is replaced with empty text
+    private void removed(List<XMLEvent> out) {
+        if(isNobrEnd(last(out))) {
+            out.add(ef.createCharacters(""));
+        }
+    }
+    
+    // merges adjacent literal text
+    private List<XMLEvent> merge(List<XMLEvent> events) {
+        List<XMLEvent> out = new ArrayList<XMLEvent>(events.size());
+        for(XMLEvent e: events) {
+            int last = out.size() - 1;
+            if(isLiteral(e) && last >= 0 && isLiteral(out.get(last)) 
+                    && (last == 0 || !isNobrEnd(out.get(last - 1)))) {
+                String data = out.get(last).asCharacters().getData() + e.asCharacters().getData();
+                if(!TemplateProgram.isTemplate(data)) {
+                    out.set(last, ef.createCharacters(data));
+                    continue;
+                }
+            }
+            out.add(e);
+        }
+        return out;
+    }
+    
+    private static boolean isLiteral(XMLEvent e) {
+        if(!e.isCharacters()) {
+            return false;
+        }
+        Characters c = e.asCharacters();
+        return !c.isCData() && !c.isIgnorableWhiteSpace() && !TemplateProgram.isTemplate(c.getData());
+    }
+    
+    private boolean containsBranches(XMLEvent[] in, int start, int end) {
+        for(int i = start; i < end; i++) {
+            if(isBranch(in[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private boolean containsBranches(List<XMLEvent> events, int start, int end) {
+        for(int i = start; i < end; i++) {
+            if(isBranch(events.get(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // whether a following sibling of element at specified index is an at:else
+    private boolean isElseFollowing(XMLEvent[] in, int[] ends, int index) {
+        for(int i = next(in, ends, index); i < in.length && !in[i].isEndElement(); i = next(in, ends, i)) {
+            if(in[i].isStartElement() && isElse(in[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private boolean isBranch(XMLEvent e) {
+        return e.isStartElement() && (isElement(e, IfEl.class) || isElement(e, ElseEl.class));
+    }
+    
+    private boolean isElse(XMLEvent e) {
+        return isElement(e, ElseEl.class);
+    }
+    
+    // whether start element is handled by specified builtin handler
+    private boolean isElement(XMLEvent e, Class<? extends ElementHandler> handler) {
+        ElementHandler eh = h.getElementHandler(e.asStartElement().getName());
+        return eh != null && eh.getClass() == handler;
+    }
+    
+    private boolean isNobrEnd(XMLEvent e) {
+        if(e == null || !e.isEndElement()) {
+            return false;
+        }
+        ElementHandler eh = h.getElementHandler(e.asEndElement().getName());
+        return eh != null && eh.getClass() == NobrEl.class;
+    }
+    
+    private static XMLEvent last(List<XMLEvent> events) {
+        return events.isEmpty() ? null : events.get(events.size() - 1);
+    }
+    
+    // index of the next sibling
+    private static int next(XMLEvent[] in, int[] ends, int index) {
+        return in[index].isStartElement() && ends[index] >= 0 ? ends[index] + 1 : index + 1;
+    }
+    
+}
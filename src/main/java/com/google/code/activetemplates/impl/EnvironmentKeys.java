@@ -0,0 +1,126 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.code.activetemplates.impl;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.code.activetemplates.events.EnvironmentKey;
+
+/**
+ * Ids of environment keys used by handlers of a template compiler.
+ * 
+ * Keys kept in static fields of handlers are numbered when handlers are 
+ * registered, other keys when an object is first put under them. A name 
+ * holds objects of a single class, keys of the same name and another class
+ * are rejected. Looking a key up never numbers it.
+ * 
+ * @author sleepless
+ */
+class EnvironmentKeys {
+    
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+    
+    // guarded by this
+    private int count;
+    
+    /**
+     * Registers keys kept in static fields of specified class, its
+     * superclasses and interfaces
+     * 
+     * @param clazz
+     */
+    public void registerFields(Class<?> clazz) {
+        List<Field> fields = new ArrayList<Field>(Arrays.asList(clazz.getFields()));
+        for(Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+            fields.addAll(Arrays.asList(c.getDeclaredFields()));
+        }
+        
+        for(Field f: fields) {
+            if(!Modifier.isStatic(f.getModifiers()) || !EnvironmentKey.class.isAssignableFrom(f.getType())) {
+                continue;
+            }
+            try {
+                f.setAccessible(true);
+                EnvironmentKey<?> key = (EnvironmentKey<?>) f.get(null);
+                if(key != null) {
+                    register(key.getName(), key.getType());
+                }
+            } catch (SecurityException e) {
+                // key is registered when first used
+            } catch (IllegalAccessException e) {
+                // key is registered when first used
+            }
+        }
+    }
+    
+    /**
+     * Returns id of the key of specified name, or -1 if no such key is registered
+     * 
+     * @param name
+     * @return
+     */
+    public int getId(String name) {
+        Entry e = entries.get(name);
+        return e == null ? -1 : e.id;
+    }
+    
+    /**
+     * Registers key of specified name and class, unless it is already known.
+     * Names registered with class Object, e.g. by put(String, Object), 
+     * hold objects of any class.
+     * 
+     * @param name
+     * @param type
+     * @return registered key
+     * @throws IllegalArgumentException if the name holds objects of another class
+     */
+    public Entry register(String name, Class<?> type) {
+        Entry e = entries.get(name);
+        if(e == null) {
+            synchronized(this) {
+                e = entries.get(name);
+                if(e == null) {
+                    e = new Entry(count++, type);
+                    entries.put(name, e);
+                }
+            }
+        }
+        if(e.type != type && e.type != Object.class && type != Object.class) {
+            throw new IllegalArgumentException("Environment key " + name + " holds " + 
+                    e.type.getName() + ", not " + type.getName());
+        }
+        return e;
+    }
+    
+    static final class Entry {
+        
+        final int id;
+        final Class<?> type;
+        
+        private Entry(int id, Class<?> type) {
+            this.id = id;
+            this.type = type;
+        }
+    }
+}
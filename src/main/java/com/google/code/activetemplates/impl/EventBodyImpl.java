@@ -0,0 +1,79 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.code.activetemplates.impl;
+
+import java.util.Queue;
+
+import javax.xml.stream.events.XMLEvent;
+
+import com.google.code.activetemplates.events.EventBody;
+
+/**
+ * Element body, which is either a range of program indexes, replayed
+ * through a cursor, or, if children did not come from the program, 
+ * a copy of their events.
+ * 
+ * @author sleepless
+ */
+class EventBodyImpl implements EventBody {
+
+    private final TemplateProgram program;
+    private final int start;
+    private final int end;
+    private final Queue<XMLEvent> events;
+
+    EventBodyImpl(TemplateProgram program, int start, int end) {
+        this.program = program;
+        this.start = start;
+        this.end = end;
+        this.events = null;
+    }
+    
+    EventBodyImpl(Queue<XMLEvent> events) {
+        this.program = null;
+        this.start = 0;
+        this.end = 0;
+        this.events = events;
+    }
+
+    public boolean isEmpty() {
+        return events == null ? start >= end : events.isEmpty();
+    }
+    
+    /**
+     * Returns program this body's range belongs to, or null if body 
+     * holds copied events
+     * 
+     * @return
+     */
+    TemplateProgram getProgram() {
+        return program;
+    }
+
+    int getStart() {
+        return start;
+    }
+
+    int getEnd() {
+        return end;
+    }
+
+    Queue<XMLEvent> getEvents() {
+        return events;
+    }
+
+}
@@ -1,68 +1,85 @@
-package com.google.code.activetemplates.impl;
-
-import java.io.IOException;
-import java.io.InputStream;
-
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.stream.StreamSource;
-
-import com.google.code.activetemplates.events.ElementHandler;
-import com.google.code.activetemplates.events.EventComponent;
-import com.google.code.activetemplates.events.TemplateEvent;
-import com.google.code.activetemplates.xml.FileXmlCache;
-import com.google.code.activetemplates.xml.XmlCache;
-import com.google.code.activetemplates.xml.XmlResult;
-import com.google.code.activetemplates.xml.XmlSource;
-
-public class EventComponentFactory {
-    
-    private XmlCache xmlCache;
-    private TransformerFactory tFactory;
-    
-    public EventComponentFactory() {
-        xmlCache = new FileXmlCache("temp");
-
-        tFactory = TransformerFactory.newInstance();
-    }
-
-    public EventComponent createComponent(TemplateEvent te, Class<? extends ElementHandler> clazz) {
-        
-        if(!xmlCache.contains(clazz.getName())) {
-            InputStream is = clazz.getResourceAsStream(clazz.getSimpleName() + ".xml");
-            
-            if(is == null) {
-                return null;
-            }
-            
-            XmlResult res = xmlCache.createResult(clazz.getName());
-            try {
-                Transformer t = tFactory.newTransformer();
-                t.transform(new StreamSource(is), res.getResult());
-            } catch (Exception e) {
-                throw new IllegalStateException(e);
-            } finally {
-                res.close();
-                try{ is.close(); } catch(IOException e){}
-            }
-        }
-        
-        return new EventComponentImpl(te, new XmlSourceCreator(xmlCache, clazz.getName()));
-    }
-    
-    static class XmlSourceCreator {
-        
-        XmlCache xmlCache;
-        String name;
-        
-        XmlSourceCreator(XmlCache xmlCache, String name) {
-            this.xmlCache = xmlCache;
-            this.name = name;
-        }
-        
-        public XmlSource createSource() {
-            return xmlCache.createSource(name);
-        }
-        
-    }
-}
+package com.google.code.activetemplates.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.XMLEvent;
+import javax.xml.transform.stream.StreamSource;
+
+import com.google.code.activetemplates.events.ElementHandler;
+import com.google.code.activetemplates.events.EventComponent;
+import com.google.code.activetemplates.events.TemplateEvent;
+
+/**
+ * Creates components of element handlers.
+ * 
+ * Component of a handler is an xml resource named after handler class, 
+ * placed next to it. Components of all known handlers are read once at 
+ * startup into immutable event arrays, handlers without a component are
+ * remembered as such, so nothing is looked up or read while rendering.
+ * 
+ * @author sleepless
+ */
+public class EventComponentFactory {
+    
+    // marks handlers without a component
+    private static final XMLEvent[] NO_COMPONENT = new XMLEvent[0];
+    
+    private EventLoader eventLoader;
+    private ConcurrentMap<Class<?>, XMLEvent[]> components;
+    
+    public EventComponentFactory(EventLoader eventLoader, List<ElementHandler> handlers) {
+        this.eventLoader = eventLoader;
+        components = new ConcurrentHashMap<Class<?>, XMLEvent[]>();
+        
+        for(ElementHandler h: handlers) {
+            getComponent(h.getClass());
+        }
+    }
+
+    public EventComponent createComponent(TemplateEvent te, Class<? extends ElementHandler> clazz) {
+        XMLEvent[] events = getComponent(clazz);
+        if(events == NO_COMPONENT) {
+            return null;
+        }
+        return new EventComponentImpl(te, events);
+    }
+    
+    // returns component events of the handler class, reading them on first use
+    private XMLEvent[] getComponent(Class<?> clazz) {
+        XMLEvent[] events = components.get(clazz);
+        if(events == null) {
+            events = readComponent(clazz);
+            components.putIfAbsent(clazz, events);
+        }
+        return events;
+    }
+    
+    private XMLEvent[] readComponent(Class<?> clazz) {
+        URL url = clazz.getResource(clazz.getSimpleName() + ".xml");
+        if(url == null) {
+            return NO_COMPONENT;
+        }
+        
+        InputStream is = null;
+        try {
+            is = url.openStream();
+            List<XMLEvent> events = eventLoader.load(new StreamSource(is, url.toExternalForm()));
+            return events.toArray(new XMLEvent[events.size()]);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            if(is != null) {
+                try{ is.close(); } catch(IOException e){}
+            }
+        }
+    }
+    
+}
@@ -1,71 +1,180 @@
-package com.google.code.activetemplates.impl;
-
-import java.util.HashMap;
-import java.util.Map;
-
-import com.google.code.activetemplates.events.EventEnvironment;
-
-class EventEnvironmentImpl implements EventEnvironment {
-
-    private EventEnvironmentImpl parent;
-    private Map<String, Object> data;
-    private int innerCount;
-    
-    public EventEnvironmentImpl() {
-        this(null);
-    }
-    
-    public EventEnvironmentImpl(EventEnvironmentImpl parent) {
-        this.parent = parent;
-        innerCount = 0;
-    }
-    
-    @Override
-    public Object get(String name) {
-        if(data == null || !data.containsKey(name)) {
-            return parent == null ? null : parent.get(name);
-        }
-        return data.get(name);
-    }
-
-    @Override
-    public <T> T get(String name, Class<T> clazz) {
-        return clazz.cast(get(name));
-    }
-    
-    @Override
-    public <T> T get(Class<T> clazz) {
-        return get(clazz.getName(), clazz);
-    }
-
-    @Override
-    public void put(String name, Object value) {
-        if(data == null) {
-            data = new HashMap<String, Object>();
-        }
-        data.put(name, value);
-    }
-
-    @Override
-    public <T> void put(Class<? extends T> clazz, T value) {
-        put(clazz.getName(), value);
-    }
-    
-    @Override
-    public void put(Object value) {
-        put(value.getClass(), value);
-    }
-
-    public int getInnerCount() {
-        return innerCount;
-    }
-    
-    public void incInnerCount() {
-        innerCount++;
-    }
-    
-    public void decInnerCount() {
-        innerCount--;
-    }
-
-}
+package com.google.code.activetemplates.impl;
+
+import java.util.Arrays;
+
+import com.google.code.activetemplates.events.EnvironmentKey;
+import com.google.code.activetemplates.events.EventEnvironment;
+
+/**
+ * Event environment of a render: a stack of frames, one per element scope
+ * which asked for an environment.
+ * 
+ * Frames are not separate maps. Object visible under every key is kept in 
+ * an array indexed by key id, along with depth of the frame which put it.
+ * When a frame puts an object under a key of an outer frame, outer object
+ * is saved to an undo log and put back when the frame is left. Lookups are
+ * therefore a single array read, and once arrays have grown, neither 
+ * lookups nor frames allocate anything.
+ * 
+ * Key ids come from the compiler's key registry. Lookups of keys nobody 
+ * has put anything under find nothing and do not register them; puts 
+ * check the object against the class of the key.
+ * 
+ * @author sleepless
+ */
+class EventEnvironmentImpl implements EventEnvironment {
+
+    // visible objects and depths of frames which put them, by key id
+    private Object[] values;
+    private int[] owners;
+    
+    // objects and owners replaced by inner frames
+    private int[] logKeys;
+    private Object[] logValues;
+    private int[] logOwners;
+    private int logSize;
+    
+    // log position and element nesting of every frame
+    private int[] logStarts;
+    private int[] innerCounts;
+    private int depth;
+    
+    private final EnvironmentKeys keys;
+    
+    public EventEnvironmentImpl(EnvironmentKeys keys) {
+        this.keys = keys;
+        values      = new Object[16];
+        owners      = new int[16];
+        logKeys     = new int[16];
+        logValues   = new Object[16];
+        logOwners   = new int[16];
+        logStarts   = new int[8];
+        innerCounts = new int[8];
+    }
+    
+    /**
+     * Starts a new frame
+     */
+    public void push() {
+        if(depth == logStarts.length) {
+            logStarts = Arrays.copyOf(logStarts, depth * 2);
+            innerCounts = Arrays.copyOf(innerCounts, depth * 2);
+        }
+        logStarts[depth] = logSize;
+        innerCounts[depth] = 0;
+        depth++;
+    }
+    
+    /**
+     * Leaves current frame, objects it has put are replaced by outer ones
+     */
+    public void pop() {
+        depth--;
+        int start = logStarts[depth];
+        while(logSize > start) {
+            logSize--;
+            int id = logKeys[logSize];
+            values[id] = logValues[logSize];
+            owners[id] = logOwners[logSize];
+            logValues[logSize] = null;
+        }
+    }
+    
+    /**
+     * Returns number of frames
+     * 
+     * @return
+     */
+    public int getDepth() {
+        return depth;
+    }
+    
+    @Override
+    public <T> void put(EnvironmentKey<T> key, T value) {
+        put(key.getName(), key.getType(), value);
+    }
+    
+    @Override
+    public <T> T get(EnvironmentKey<T> key) {
+        return key.getType().cast(get(key.getName()));
+    }
+    
+    @Override
+    public Object get(String name) {
+        int id = keys.getId(name);
+        return id >= 0 && id < values.length ? values[id] : null;
+    }
+
+    @Override
+    public <T> T get(String name, Class<T> clazz) {
+        return clazz.cast(get(name));
+    }
+    
+    @Override
+    public <T> T get(Class<T> clazz) {
+        return clazz.cast(get(clazz.getName()));
+    }
+
+    @Override
+    public void put(String name, Object value) {
+        put(name, Object.class, value);
+    }
+
+    @Override
+    public <T> void put(Class<? extends T> clazz, T value) {
+        put(clazz.getName(), clazz, value);
+    }
+    
+    @Override
+    public void put(Object value) {
+        put(value.getClass(), value);
+    }
+    
+    private void put(String name, Class<?> type, Object value) {
+        EnvironmentKeys.Entry key = keys.register(name, type);
+        if(value != null && !(type.isInstance(value) && key.type.isInstance(value))) {
+            throw new ClassCastException("Environment key " + name + " holds " + 
+                    key.type.getName() + ", not " + value.getClass().getName());
+        }
+        
+        int id = key.id;
+        if(id >= values.length) {
+            int length = Math.max(values.length * 2, id + 1);
+            values = Arrays.copyOf(values, length);
+            owners = Arrays.copyOf(owners, length);
+        }
+        
+        if(owners[id] != depth) {
+            if(logSize == logKeys.length) {
+                logKeys = Arrays.copyOf(logKeys, logSize * 2);
+                logValues = Arrays.copyOf(logValues, logSize * 2);
+                logOwners = Arrays.copyOf(logOwners, logSize * 2);
+            }
+            logKeys[logSize] = id;
+            logValues[logSize] = values[id];
+            logOwners[logSize] = owners[id];
+            logSize++;
+            owners[id] = depth;
+        }
+        values[id] = value;
+    }
+
+    /**
+     * Returns element nesting of the current frame, 
+     * which is negative once element of the frame has ended
+     * 
+     * @return
+     */
+    public int getInnerCount() {
+        return innerCounts[depth - 1];
+    }
+    
+    public void incInnerCount() {
+        innerCounts[depth - 1]++;
+    }
+    
+    public void decInnerCount() {
+        innerCounts[depth - 1]--;
+    }
+
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.code.activetemplates.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.Namespace;
+import javax.xml.stream.events.XMLEvent;
+import javax.xml.transform.Source;
+
+import org.codehaus.stax2.XMLStreamReader2;
+
+/**
+ * Reads xml documents through a StAX cursor reader.
+ *
+ * Only events which can contribute to the output are created: start and 
+ * end elements and text, with adjacent text merged into one event. 
+ * Comments, processing instructions and document events are skipped 
+ * without allocating anything, and created events carry no location.
+ *
+ * @author sleepless
+ */
+class EventLoader {
+
+    private final XMLInputFactory inFactory;
+    private final XMLEventFactory eFactory;
+
+    public EventLoader(XMLInputFactory inFactory, XMLEventFactory eFactory) {
+        this.inFactory = inFactory;
+        this.eFactory = eFactory;
+    }
+
+    public XMLEventFactory getEventFactory() {
+        return eFactory;
+    }
+
+    /**
+     * Reads all events of the source
+     *
+     * @param s
+     * @return
+     * @throws XMLStreamException
+     */
+    public List<XMLEvent> load(Source s) throws XMLStreamException {
+        List<XMLEvent> events = new ArrayList<XMLEvent>();
+
+        XMLStreamReader r = inFactory.createXMLStreamReader(s);
+        try {
+            StringBuilder text = new StringBuilder();
+
+            while(r.hasNext()) {
+                int type = r.next();
+
+                if(type == XMLStreamConstants.CHARACTERS) {
+                    text.append(r.getTextCharacters(), r.getTextStart(), r.getTextLength());
+                    continue;
+                }
+
+                // any other node, even a skipped one, ends the text
+                if(text.length() > 0) {
+                    events.add(eFactory.createCharacters(text.toString()));
+                    text.setLength(0);
+                }
+
+                switch(type) {
+                case XMLStreamConstants.START_ELEMENT:
+                    events.add(createStartElement(r));
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    events.add(eFactory.createEndElement(
+                            nonNull(r.getPrefix()), nonNull(r.getNamespaceURI()), r.getLocalName()));
+                    break;
+                case XMLStreamConstants.CDATA:
+                    events.add(eFactory.createCData(r.getText()));
+                    break;
+                case XMLStreamConstants.SPACE:
+                    events.add(eFactory.createIgnorableSpace(r.getText()));
+                    break;
+                }
+            }
+
+            if(text.length() > 0) {
+                events.add(eFactory.createCharacters(text.toString()));
+            }
+
+        } finally {
+            r.close();
+        }
+
+        return events;
+    }
+
+    private XMLEvent createStartElement(XMLStreamReader r) {
+
+        List<Attribute> attributes = Collections.emptyList();
+        int count = r.getAttributeCount();
+        if(count > 0) {
+            attributes = new ArrayList<Attribute>(count);
+            for(int i = 0; i < count; i++) {
+                attributes.add(eFactory.createAttribute(
+                        nonNull(r.getAttributePrefix(i)), nonNull(r.getAttributeNamespace(i)),
+                        r.getAttributeLocalName(i), r.getAttributeValue(i)));
+            }
+        }
+
+        List<Namespace> namespaces = Collections.emptyList();
+        count = r.getNamespaceCount();
+        if(count > 0) {
+            namespaces = new ArrayList<Namespace>(count);
+            for(int i = 0; i < count; i++) {
+                String prefix = r.getNamespacePrefix(i);
+                String uri = nonNull(r.getNamespaceURI(i));
+                namespaces.add(prefix == null || prefix.length() == 0
+                        ? eFactory.createNamespace(uri)
+                        : eFactory.createNamespace(prefix, uri));
+            }
+        }
+
+        // handlers resolve prefixes through context of the element
+        NamespaceContext nc = r instanceof XMLStreamReader2
+                ? ((XMLStreamReader2) r).getNonTransientNamespaceContext()
+                : null;
+
+        return eFactory.createStartElement(nonNull(r.getPrefix()), nonNull(r.getNamespaceURI()),
+                r.getLocalName(), attributes.iterator(), namespaces.iterator(), nc);
+    }
+
+    private static String nonNull(String s) {
+        return s == null ? "" : s;
+    }
+
+}
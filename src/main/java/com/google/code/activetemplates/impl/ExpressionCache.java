@@ -0,0 +1,158 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.code.activetemplates.impl;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.google.code.activetemplates.spi.CompiledExpression;
+import com.google.code.activetemplates.spi.ExpressionEngine;
+
+/**
+ * Bounded cache of parsed expressions, shared by all compiles of a
+ * template compiler.
+ *
+ * Expressions are parsed by an expression engine and keyed by their text,
+ * plain expressions and templates separately. Once the cache
+ * is full, new expressions are parsed but not cached, so that expressions
+ * of the templates which were rendered first stay cached.
+ * Cache hits are counted in cells picked by the counting thread, which are
+ * padded apart, so that concurrent compiles do not contend on the counter.
+ *
+ * @author sleepless
+ */
+public class ExpressionCache {
+
+    public static final int DEFAULT_MAX_SIZE = 4096;
+    
+    // number of hit counter cells, a power of two, 
+    // and distance between cells in longs, which keeps them on separate cache lines
+    private static final int HIT_CELLS = 64;
+    private static final int HIT_CELL_SPACING = 8;
+
+    private final ExpressionEngine engine;
+    private final int maxSize;
+
+    private final ConcurrentMap<String, CompiledExpression> expressions;
+    private final ConcurrentMap<String, CompiledExpression> templates;
+    private final AtomicInteger size;
+
+    private final AtomicLongArray hits;
+    private final AtomicLong misses;
+
+    public ExpressionCache(ExpressionEngine engine) {
+        this(engine, DEFAULT_MAX_SIZE);
+    }
+
+    public ExpressionCache(ExpressionEngine engine, int maxSize) {
+        this.engine = engine;
+        this.maxSize = maxSize;
+
+        expressions = new ConcurrentHashMap<String, CompiledExpression>();
+        templates = new ConcurrentHashMap<String, CompiledExpression>();
+        size = new AtomicInteger();
+        hits = new AtomicLongArray(HIT_CELLS * HIT_CELL_SPACING);
+        misses = new AtomicLong();
+    }
+
+    /**
+     * Returns parsed expression for specified text
+     *
+     * @param expression
+     * @return
+     */
+    public CompiledExpression getExpression(String expression) {
+        return getExpression(expression, expressions, false);
+    }
+
+    /**
+     * Returns parsed template for specified text
+     *
+     * @param template
+     * @return
+     */
+    public CompiledExpression getTemplate(String template) {
+        return getExpression(template, templates, true);
+    }
+
+    private CompiledExpression getExpression(String expression, ConcurrentMap<String, CompiledExpression> m, boolean template) {
+        CompiledExpression expr = m.get(expression);
+        if(expr != null) {
+            int cell = (int) Thread.currentThread().getId() & (HIT_CELLS - 1);
+            hits.incrementAndGet(cell * HIT_CELL_SPACING);
+            return expr;
+        }
+
+        misses.incrementAndGet();
+        expr = template
+                ? engine.parseTemplate(expression)
+                : engine.parseExpression(expression);
+
+        if(size.get() < maxSize && m.putIfAbsent(expression, expr) == null) {
+            size.incrementAndGet();
+        }
+        return expr;
+    }
+    
+    /**
+     * Returns engine expressions are parsed with
+     * @return
+     */
+    public ExpressionEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Returns maximum number of cached expressions
+     * @return
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns number of cached expressions
+     * @return
+     */
+    public int getSize() {
+        return size.get();
+    }
+
+    /**
+     * Returns number of lookups which found a parsed expression in the cache
+     * @return
+     */
+    public long getHitCount() {
+        long count = 0;
+        for(int i = 0; i < HIT_CELLS; i++) {
+            count += hits.get(i * HIT_CELL_SPACING);
+        }
+        return count;
+    }
+
+    /**
+     * Returns number of lookups which had to parse an expression
+     * @return
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+}
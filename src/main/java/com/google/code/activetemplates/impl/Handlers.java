@@ -1,114 +1,200 @@
-/*
- * Copyright 2009 Anton Tanasenko
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *    http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-
-package com.google.code.activetemplates.impl;
-
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
-import javax.xml.namespace.QName;
-import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.Attribute;
-import javax.xml.stream.events.EndElement;
-import javax.xml.stream.events.StartElement;
-
-
-import com.google.code.activetemplates.events.AttributeHandler;
-import com.google.code.activetemplates.events.ElementHandler;
-import com.google.code.activetemplates.events.ElementHandler.Outcome;
-import com.google.code.activetemplates.spi.HandlerSPI;
-import com.google.code.activetemplates.spi.Providers;
-
-class Handlers {
-    
-    private Map<QName, AttributeHandler> attributes;
-    private Map<QName, ElementHandler> elements;
-    private TemplateEventPool eventPool;
-    
-    public Handlers(){
-        
-        Map<QName, AttributeHandler> attributes = new HashMap<QName, AttributeHandler>();
-        Map<QName, ElementHandler> elements     = new HashMap<QName, ElementHandler>();
-        
-        List<HandlerSPI> spis = Providers.getHandlerSPIs();
-        
-        for(HandlerSPI spi: spis) {
-            
-            if(spi.getAttributeHandlers() != null) {
-                attributes.putAll(spi.getAttributeHandlers());
-            }
-            if(spi.getElementHandlers() != null) {
-                elements.putAll(spi.getElementHandlers());
-            }
-            
-        }
-        
-        this.attributes = attributes;
-        this.elements = elements;
-        eventPool = new TemplateEventPool();
-    }
-    
-    public boolean isAttributeHandled(QName name){
-        return attributes.containsKey(name);
-    }
-    
-    public boolean isElementHandled(QName name){
-        return elements.containsKey(name);
-    }
-    
-    public AttributeHandler.Outcome processAttribute(CompileContext cc, Attribute attr) throws XMLStreamException {
-        AttributeHandler h = attributes.get(attr.getName());
-        if(h == null) throw new IllegalStateException("Attribute " + attr.getName() + " is not handled");
-        AttributeEventImpl ev = eventPool.borrowAttributeEvent();
-        ev.init(cc, attr, null);
-        try {
-            AttributeHandler.Outcome o = h.processAttribute(ev);
-            return o != null ? o : AttributeHandler.Outcome.PROCESS_ALL;
-        } finally {
-            eventPool.returnAttributeEvent(ev);
-        }
-    }
-    
-    public ElementHandler.Outcome processStartElement(CompileContext cc, StartElement el) throws XMLStreamException {
-        ElementHandler h = elements.get(el.getName());
-        if(h == null) throw new IllegalStateException("Element " + el.getName() + " is not handled");
-        
-        StartElementEventImpl ev = eventPool.borrowStartElementEvent();
-        ev.init(cc, el, cc.getComponentFactory().createComponent(ev, h.getClass()));
-        
-        try {
-            ElementHandler.Outcome o = h.processStart(ev);
-            return o != null ? o : Outcome.PROCESS_CHILDREN;
-        } finally {
-            eventPool.returnStartElementEvent(ev);
-        }
-    }
-
-    public void processEndElement(CompileContext cc, EndElement el) throws XMLStreamException {
-        ElementHandler h = elements.get(el.getName());
-        if(h == null) throw new IllegalStateException("Element " + el.getName() + " is not handled");
-        
-        EndElementEventImpl ev = eventPool.borrowEndElementEvent();
-        ev.init(cc, el, null);
-        
-        try {
-            h.processEnd(ev);
-        } finally {
-            eventPool.returnEndElementEvent(ev);
-        }
-    }
-}
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.code.activetemplates.impl;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.EndElement;
+import javax.xml.stream.events.StartElement;
+
+
+import com.google.code.activetemplates.events.AttributeHandler;
+import com.google.code.activetemplates.events.ElementHandler;
+import com.google.code.activetemplates.events.ElementHandler.Outcome;
+import com.google.code.activetemplates.spi.HandlerSPI;
+import com.google.code.activetemplates.spi.Providers;
+
+class Handlers {
+    
+    // handlers are bound to dense ids, which programs resolve at load time.
+    // handlers are immutable once created and shared by all compiles
+    private Map<QName, Integer> attributeIds;
+    private Map<QName, Integer> elementIds;
+    private AttributeHandler[] attributes;
+    private ElementHandler[] elements;
+    
+    // ids of environment keys of these handlers and those created on renders
+    private EnvironmentKeys environmentKeys;
+    
+    public Handlers(){
+        
+        Map<QName, AttributeHandler> attributes = new HashMap<QName, AttributeHandler>();
+        Map<QName, ElementHandler> elements     = new HashMap<QName, ElementHandler>();
+        
+        List<HandlerSPI> spis = Providers.getHandlerSPIs();
+        
+        for(HandlerSPI spi: spis) {
+            
+            if(spi.getAttributeHandlers() != null) {
+                attributes.putAll(spi.getAttributeHandlers());
+            }
+            if(spi.getElementHandlers() != null) {
+                elements.putAll(spi.getElementHandlers());
+            }
+            
+        }
+        
+        this.attributeIds = new HashMap<QName, Integer>();
+        this.attributes = new AttributeHandler[attributes.size()];
+        for(Map.Entry<QName, AttributeHandler> en: attributes.entrySet()) {
+            this.attributes[attributeIds.size()] = en.getValue();
+            attributeIds.put(en.getKey(), attributeIds.size());
+        }
+        
+        this.elementIds = new HashMap<QName, Integer>();
+        this.elements = new ElementHandler[elements.size()];
+        for(Map.Entry<QName, ElementHandler> en: elements.entrySet()) {
+            this.elements[elementIds.size()] = en.getValue();
+            elementIds.put(en.getKey(), elementIds.size());
+        }
+        
+        this.environmentKeys = new EnvironmentKeys();
+        for(AttributeHandler ah: this.attributes) {
+            environmentKeys.registerFields(ah.getClass());
+        }
+        for(ElementHandler eh: this.elements) {
+            environmentKeys.registerFields(eh.getClass());
+        }
+    }
+    
+    /**
+     * Returns ids of environment keys used by handlers
+     * 
+     * @return
+     */
+    public EnvironmentKeys getEnvironmentKeys() {
+        return environmentKeys;
+    }
+    
+    public boolean isAttributeHandled(QName name){
+        return attributeIds.containsKey(name);
+    }
+    
+    public boolean isElementHandled(QName name){
+        return elementIds.containsKey(name);
+    }
+    
+    public AttributeHandler getAttributeHandler(QName name){
+        int id = getAttributeId(name);
+        return id < 0 ? null : attributes[id];
+    }
+    
+    public ElementHandler getElementHandler(QName name){
+        int id = getElementId(name);
+        return id < 0 ? null : elements[id];
+    }
+    
+    /**
+     * Returns all element handlers
+     * 
+     * @return
+     */
+    public List<ElementHandler> getElementHandlers(){
+        return Collections.unmodifiableList(Arrays.asList(elements));
+    }
+    
+    /**
+     * Returns id of the handler for specified attribute, 
+     * or -1 if attribute is not handled
+     * 
+     * @param name
+     * @return
+     */
+    public int getAttributeId(QName name){
+        Integer id = attributeIds.get(name);
+        return id == null ? -1 : id;
+    }
+    
+    /**
+     * Returns id of the handler for specified element, 
+     * or -1 if element is not handled
+     * 
+     * @param name
+     * @return
+     */
+    public int getElementId(QName name){
+        Integer id = elementIds.get(name);
+        return id == null ? -1 : id;
+    }
+    
+    public AttributeHandler.Outcome processAttribute(CompileContext cc, int id, Attribute attr) throws XMLStreamException {
+        AttributeHandler h = attributes[id];
+        AttributeEventImpl ev = cc.getAttributeEvent();
+        ev.init(cc, attr, null);
+        try {
+            AttributeHandler.Outcome o = h.processAttribute(ev);
+            return o != null ? o : AttributeHandler.Outcome.PROCESS_ALL;
+        } finally {
+            ev.dispose();
+        }
+    }
+    
+    public ElementHandler.Outcome processStartElement(CompileContext cc, int id, StartElement el) throws XMLStreamException {
+        ElementHandler h = elements[id];
+        
+        StartElementEventImpl ev = cc.getStartElementEvent();
+        ev.init(cc, el, cc.getComponentFactory().createComponent(ev, h.getClass()));
+        
+        try {
+            ElementHandler.Outcome o = h.processStart(ev);
+            return o != null ? o : Outcome.PROCESS_CHILDREN;
+        } finally {
+            ev.dispose();
+        }
+    }
+
+    public void processEndElement(CompileContext cc, int id, EndElement el) throws XMLStreamException {
+        ElementHandler h = elements[id];
+        
+        EndElementEventImpl ev = cc.getEndElementEvent();
+        ev.init(cc, el, null);
+        
+        try {
+            h.processEnd(ev);
+        } finally {
+            ev.dispose();
+        }
+    }
+
+    public void executeAction(CompileContext cc, ActionInstruction ai) {
+        ActionEventImpl ev = cc.getActionEvent();
+        ev.init(cc, ai, null);
+        
+        try {
+            ai.getAction().execute(ev);
+        } finally {
+            ev.dispose();
+        }
+    }
+}
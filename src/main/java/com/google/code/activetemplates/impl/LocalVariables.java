@@ -0,0 +1,94 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.code.activetemplates.impl;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Numbers local variables of templates, e.g. values of at:each loops.
+ * 
+ * Every variable name gets a slot once and keeps it for the lifetime of a 
+ * template compiler, so handlers and render plans resolve slots when
+ * they are built and expressions keep slots of the variables they read.
+ * Values are stored in arrays of render evaluation contexts, indexed by 
+ * slot. Nested scopes declaring a variable of the same name share its slot, 
+ * saving outer value on entry and restoring it on exit.
+ * 
+ * @author sleepless
+ */
+class LocalVariables {
+
+    private final ConcurrentMap<String, Integer> slots = new ConcurrentHashMap<String, Integer>();
+    private int size;
+    
+    /**
+     * Returns name of the variable referenced by expression, if it is a
+     * plain variable reference like <code>#it</code>, or null otherwise
+     * 
+     * @param expression
+     * @return
+     */
+    public static String getName(String expression) {
+        int length = expression.length();
+        if(length < 2 || expression.charAt(0) != '#') {
+            return null;
+        }
+        for(int i = 1; i < length; i++) {
+            char c = expression.charAt(i);
+            boolean letter = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
+            if(!letter && (i == 1 || c < '0' || c > '9')) {
+                return null;
+            }
+        }
+        String name = expression.substring(1);
+        return name.equals("this") || name.equals("root") ? null : name;
+    }
+    
+    /**
+     * Returns slot of specified variable, or -1 if it was never declared
+     * 
+     * @param name
+     * @return
+     */
+    public int getSlot(String name) {
+        Integer slot = slots.get(name);
+        return slot == null ? -1 : slot;
+    }
+    
+    /**
+     * Returns slot of specified variable, numbering it on first use
+     * 
+     * @param name
+     * @return
+     */
+    public int declare(String name) {
+        Integer slot = slots.get(name);
+        if(slot != null) {
+            return slot;
+        }
+        synchronized(this) {
+            slot = slots.get(name);
+            if(slot == null) {
+                slot = size++;
+                slots.put(name, slot);
+            }
+            return slot;
+        }
+    }
+    
+}
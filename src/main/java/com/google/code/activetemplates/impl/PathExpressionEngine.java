@@ -0,0 +1,775 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.code.activetemplates.impl;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.expression.AccessException;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.PropertyAccessor;
+import org.springframework.expression.common.CompositeStringExpression;
+import org.springframework.expression.common.ExpressionUtils;
+import org.springframework.expression.common.LiteralExpression;
+import org.springframework.expression.spel.SpelEvaluationException;
+import org.springframework.expression.spel.SpelMessage;
+import org.springframework.expression.spel.standard.SpelExpression;
+
+import com.google.code.activetemplates.spi.CompiledExpression;
+
+/**
+ * Expression engine which compiles common expressions into trees of 
+ * evaluators, and leaves the rest to SpEL.
+ * 
+ * Compiled subset covers property paths, variables, map, list and array 
+ * indexes with literal or variable keys, string, number, boolean and null 
+ * literals, comparisons and boolean operators, e.g. 
+ * <code>#it.items[0].qty &gt; 10 and !flag</code>. Templates are split
+ * into literal and expression parts by SpEL and every part is compiled 
+ * separately.
+ * 
+ * Compiled expressions follow SpEL semantics: properties are read through
+ * property accessors of the evaluation context, numbers and other values 
+ * are compared and converted the same way. Accessor is resolved once per 
+ * class of the target instead of once per expression node, so expressions 
+ * applied to objects of different classes do not resolve it over again.
+ * Variables local to templates are read from their slots directly.
+ * Whether expression is compiled is decided when it is parsed, compiled
+ * expressions are never evaluated by SpEL again, so getters are invoked 
+ * once, as by SpEL. Failures, e.g. on a null in a path, are reported
+ * with the same exceptions and messages SpEL uses.
+ * 
+ * @author sleepless
+ */
+public class PathExpressionEngine extends SpelExpressionEngine {
+
+    public PathExpressionEngine() {
+        super();
+    }
+    
+    public PathExpressionEngine(ExpressionParser parser) {
+        super(parser);
+    }
+    
+    @Override
+    protected CompiledExpression compile(Expression expr) {
+        Node node = compileNode(expr);
+        if(node == null) {
+            return super.compile(expr);
+        }
+        return new PathExpression(node, super.compile(expr));
+    }
+    
+    private static Node compileNode(Expression expr) {
+        if(expr instanceof LiteralExpression) {
+            return new Constant(expr.getExpressionString());
+        } else if(expr instanceof SpelExpression) {
+            return new Parser(expr.getExpressionString()).parse();
+        } else if(expr instanceof CompositeStringExpression) {
+            Expression[] parts = ((CompositeStringExpression) expr).getExpressions();
+            Node[] nodes = new Node[parts.length];
+            for(int i = 0; i < parts.length; i++) {
+                nodes[i] = compileNode(parts[i]);
+                if(nodes[i] == null) {
+                    return null;
+                }
+            }
+            return new Concat(nodes);
+        }
+        return null;
+    }
+    
+    private static class PathExpression implements CompiledExpression {
+        
+        private final Node node;
+        private final CompiledExpression spel;
+        
+        PathExpression(Node node, CompiledExpression spel) {
+            this.node = node;
+            this.spel = spel;
+        }
+        
+        public String getExpressionString() {
+            return spel.getExpressionString();
+        }
+
+        public <T> T getValue(EvaluationContext context, Class<T> type) {
+            Object value = node.getValue(context, context.getRootObject().getValue());
+            return ExpressionUtils.convert(context, value, type);
+        }
+
+        public <T> T getValue(EvaluationContext context, Object rootObject, Class<T> type) {
+            Object value = node.getValue(context, rootObject);
+            return ExpressionUtils.convert(context, value, type);
+        }
+
+        public void setValue(EvaluationContext context, Object value) {
+            if(node instanceof Variable) {
+                context.setVariable(((Variable) node).name, value);
+            } else {
+                spel.setValue(context, value);
+            }
+        }
+        
+    }
+    
+    // evaluators
+    
+    private static abstract class Node {
+        
+        /**
+         * Evaluates node, root is the object unqualified properties are read from
+         */
+        abstract Object getValue(EvaluationContext context, Object root);
+        
+        boolean getBoolean(EvaluationContext context, Object root) {
+            Object value = getValue(context, root);
+            if(value instanceof Boolean) {
+                return (Boolean) value;
+            } else if(value == null) {
+                throw new SpelEvaluationException(SpelMessage.TYPE_CONVERSION_ERROR, "null", "boolean");
+            }
+            return (Boolean) context.getTypeConverter().convertValue(value, TypeDescriptor.valueOf(Boolean.class));
+        }
+        
+    }
+    
+    private static class Constant extends Node {
+        
+        private final Object value;
+        
+        Constant(Object value) {
+            this.value = value;
+        }
+        
+        @Override
+        Object getValue(EvaluationContext context, Object root) {
+            return value;
+        }
+        
+    }
+    
+    private static class Variable extends Node {
+        
+        private final String name;
+        private volatile LocalBinding binding;
+        
+        Variable(String name) {
+            this.name = name;
+        }
+        
+        @Override
+        Object getValue(EvaluationContext context, Object root) {
+            // local variables of a render are read from their slots
+            if(context instanceof RenderEvaluationContext) {
+                RenderEvaluationContext rc = (RenderEvaluationContext) context;
+                LocalBinding b = binding;
+                if(b == null || b.locals != rc.getLocals()) {
+                    int slot = rc.getLocals().getSlot(name);
+                    if(slot < 0) {
+                        return context.lookupVariable(name);
+                    }
+                    b = new LocalBinding(rc.getLocals(), slot);
+                    binding = b;
+                }
+                
+                Object value = rc.getLocal(b.slot);
+                if(value != RenderEvaluationContext.UNSET) {
+                    return value;
+                }
+            }
+            return context.lookupVariable(name);
+        }
+        
+    }
+    
+    private static class LocalBinding {
+        
+        final LocalVariables locals;
+        final int slot;
+        
+        LocalBinding(LocalVariables locals, int slot) {
+            this.locals = locals;
+            this.slot = slot;
+        }
+        
+    }
+    
+    private static class Property extends Node {
+        
+        private final Node target;
+        private final String name;
+        private final int position;
+        private volatile Binding binding;
+        
+        /**
+         * @param target - node evaluating to the object to read property of, 
+         *                 or null to read property of root object
+         * @param name
+         * @param position - position of the name in expression, reported on errors
+         */
+        Property(Node target, String name, int position) {
+            this.target = target;
+            this.name = name;
+            this.position = position;
+        }
+        
+        @Override
+        Object getValue(EvaluationContext context, Object root) {
+            Object t = target == null ? root : target.getValue(context, root);
+            if(t == null) {
+                throw new SpelEvaluationException(position, SpelMessage.PROPERTY_OR_FIELD_NOT_READABLE_ON_NULL, name);
+            }
+            
+            List<PropertyAccessor> accessors = context.getPropertyAccessors();
+            Binding b = binding;
+            if(b == null || b.type != t.getClass() || b.accessors != accessors) {
+                b = new Binding(t.getClass(), accessors, findAccessor(context, accessors, t));
+                binding = b;
+            }
+            
+            try {
+                return b.accessor.read(context, t, name).getValue();
+            } catch(AccessException e) {
+                throw new SpelEvaluationException(position, e, SpelMessage.EXCEPTION_DURING_PROPERTY_READ, name, e.getMessage());
+            }
+        }
+        
+        // tries accessors in the same order as SpEL does: specific to the class first
+        private PropertyAccessor findAccessor(EvaluationContext context, List<PropertyAccessor> accessors, Object t) {
+            List<PropertyAccessor> specific = new ArrayList<PropertyAccessor>();
+            List<PropertyAccessor> general = new ArrayList<PropertyAccessor>();
+            for(PropertyAccessor a: accessors) {
+                Class<?>[] targets = a.getSpecificTargetClasses();
+                if(targets == null) {
+                    general.add(a);
+                    continue;
+                }
+                for(Class<?> clazz: targets) {
+                    if(clazz == t.getClass()) {
+                        specific.add(a);
+                    } else if(clazz.isAssignableFrom(t.getClass())) {
+                        general.add(a);
+                    }
+                }
+            }
+            specific.addAll(general);
+            
+            for(PropertyAccessor a: specific) {
+                try {
+                    if(a.canRead(context, t, name)) {
+                        return a;
+                    }
+                } catch(AccessException e) {
+                    throw new SpelEvaluationException(position, e, SpelMessage.EXCEPTION_DURING_PROPERTY_READ, name, e.getMessage());
+                }
+            }
+            throw new SpelEvaluationException(position, SpelMessage.PROPERTY_OR_FIELD_NOT_READABLE, name, 
+                    t.getClass().getName());
+        }
+        
+    }
+    
+    private static class Binding {
+        
+        final Class<?> type;
+        final List<PropertyAccessor> accessors;
+        final PropertyAccessor accessor;
+        
+        Binding(Class<?> type, List<PropertyAccessor> accessors, PropertyAccessor accessor) {
+            this.type = type;
+            this.accessors = accessors;
+            this.accessor = accessor;
+        }
+        
+    }
+    
+    private static class Index extends Node {
+        
+        private final Node target;
+        private final Node index;
+        private final int position;
+        
+        Index(Node target, Node index, int position) {
+            this.target = target;
+            this.index = index;
+            this.position = position;
+        }
+        
+        @Override
+        Object getValue(EvaluationContext context, Object root) {
+            Object t = target.getValue(context, root);
+            Object key = index.getValue(context, root);
+            if(t == null) {
+                throw new SpelEvaluationException(position, SpelMessage.CANNOT_INDEX_INTO_NULL_VALUE);
+            } else if(t instanceof Map<?, ?>) {
+                return ((Map<?, ?>) t).get(key);
+            }
+            
+            int i = key instanceof Integer 
+                ? (Integer) key 
+                : (Integer) context.getTypeConverter().convertValue(key, TypeDescriptor.valueOf(Integer.class));
+            if(t.getClass().isArray()) {
+                int length = Array.getLength(t);
+                if(i < 0 || i >= length) {
+                    throw new SpelEvaluationException(position, SpelMessage.ARRAY_INDEX_OUT_OF_BOUNDS, length, i);
+                }
+                return Array.get(t, i);
+            } else if(t instanceof Collection<?>) {
+                Collection<?> c = (Collection<?>) t;
+                if(i < 0 || i >= c.size()) {
+                    throw new SpelEvaluationException(position, SpelMessage.COLLECTION_INDEX_OUT_OF_BOUNDS, c.size(), i);
+                }
+                if(t instanceof List<?>) {
+                    return ((List<?>) t).get(i);
+                }
+                Iterator<?> it = c.iterator();
+                for(int k = 0; k < i; k++) {
+                    it.next();
+                }
+                return it.next();
+            } else if(t instanceof String) {
+                String str = (String) t;
+                if(i < 0 || i >= str.length()) {
+                    throw new SpelEvaluationException(position, SpelMessage.STRING_INDEX_OUT_OF_BOUNDS, str.length(), i);
+                }
+                return String.valueOf(str.charAt(i));
+            }
+            throw new SpelEvaluationException(position, SpelMessage.INDEXING_NOT_SUPPORTED_FOR_TYPE, t.getClass().getName());
+        }
+        
+    }
+    
+    private static class Not extends Node {
+        
+        private final Node operand;
+        
+        Not(Node operand) {
+            this.operand = operand;
+        }
+        
+        @Override
+        Object getValue(EvaluationContext context, Object root) {
+            return !operand.getBoolean(context, root);
+        }
+        
+    }
+    
+    private static class And extends Node {
+        
+        private final Node left;
+        private final Node right;
+        
+        And(Node left, Node right) {
+            this.left = left;
+            this.right = right;
+        }
+        
+        @Override
+        Object getValue(EvaluationContext context, Object root) {
+            return left.getBoolean(context, root) && right.getBoolean(context, root);
+        }
+        
+    }
+    
+    private static class Or extends Node {
+        
+        private final Node left;
+        private final Node right;
+        
+        Or(Node left, Node right) {
+            this.left = left;
+            this.right = right;
+        }
+        
+        @Override
+        Object getValue(EvaluationContext context, Object root) {
+            return left.getBoolean(context, root) || right.getBoolean(context, root);
+        }
+        
+    }
+    
+    private static class Compare extends Node {
+        
+        static final int EQ = 0, NE = 1, LT = 2, LE = 3, GT = 4, GE = 5;
+        
+        private final int op;
+        private final Node left;
+        private final Node right;
+        
+        Compare(int op, Node left, Node right) {
+            this.op = op;
+            this.left = left;
+            this.right = right;
+        }
+        
+        @Override
+        Object getValue(EvaluationContext context, Object root) {
+            Object l = left.getValue(context, root);
+            Object r = right.getValue(context, root);
+            
+            if(l instanceof Number && r instanceof Number) {
+                return compareNumbers((Number) l, (Number) r);
+            } else if(op == EQ || op == NE) {
+                boolean eq = l instanceof Comparable<?> 
+                    ? context.getTypeComparator().compare(l, r) == 0 
+                    : l == r;
+                return eq == (op == EQ);
+            }
+            return test(context.getTypeComparator().compare(l, r), 0);
+        }
+        
+        // numbers are compared as doubles, longs or ints, as by SpEL operators
+        private boolean compareNumbers(Number l, Number r) {
+            if(l instanceof Double || r instanceof Double) {
+                return test(l.doubleValue(), r.doubleValue());
+            } else if(l instanceof Long || r instanceof Long) {
+                return test(l.longValue(), r.longValue());
+            }
+            return test(l.intValue(), r.intValue());
+        }
+        
+        private boolean test(double a, double b) {
+            switch(op) {
+                case EQ: return a == b;
+                case NE: return a != b;
+                case LT: return a < b;
+                case LE: return a <= b;
+                case GT: return a > b;
+                default: return a >= b;
+            }
+        }
+        
+        private boolean test(long a, long b) {
+            switch(op) {
+                case EQ: return a == b;
+                case NE: return a != b;
+                case LT: return a < b;
+                case LE: return a <= b;
+                case GT: return a > b;
+                default: return a >= b;
+            }
+        }
+        
+    }
+    
+    private static class Concat extends Node {
+        
+        private final Node[] parts;
+        
+        Concat(Node[] parts) {
+            this.parts = parts;
+        }
+        
+        @Override
+        Object getValue(EvaluationContext context, Object root) {
+            StringBuilder sb = new StringBuilder();
+            for(Node part: parts) {
+                String s = ExpressionUtils.convert(context, part.getValue(context, root), String.class);
+                if(s != null) {
+                    sb.append(s);
+                }
+            }
+            return sb.toString();
+        }
+        
+    }
+    
+    // parser
+    
+    /**
+     * Parser of the compiled subset. Anything it does not recognize, 
+     * including names SpEL reserves, makes it give up, leaving 
+     * expression to SpEL.
+     */
+    private static class Parser {
+        
+        private static final List<String> RESERVED = Arrays.asList(
+                "and", "or", "not", "eq", "ne", "lt", "le", "gt", "ge", "div", "mod",
+                "instanceof", "between", "matches", "true", "false", "null", "new", "t");
+        
+        private static final String[] OPERATORS = {"==", "!=", "<", "<=", ">", ">="};
+        private static final String[] NAMED_OPERATORS = {"eq", "ne", "lt", "le", "gt", "ge"};
+        
+        private final String s;
+        private int pos;
+        
+        Parser(String s) {
+            this.s = s;
+        }
+        
+        /**
+         * Returns compiled expression, or null if it is not in the subset
+         */
+        Node parse() {
+            try {
+                Node n = parseOr();
+                skipSpace();
+                return pos == s.length() ? n : null;
+            } catch(IllegalArgumentException e) {
+                return null;
+            }
+        }
+        
+        private Node parseOr() {
+            Node n = parseAnd();
+            while(acceptWord("or")) {
+                n = new Or(n, parseAnd());
+            }
+            return n;
+        }
+        
+        private Node parseAnd() {
+            Node n = parseRelation();
+            while(acceptWord("and")) {
+                n = new And(n, parseRelation());
+            }
+            return n;
+        }
+        
+        private Node parseRelation() {
+            Node n = parseUnary();
+            int op = acceptRelation();
+            return op < 0 ? n : new Compare(op, n, parseUnary());
+        }
+        
+        private Node parseUnary() {
+            skipSpace();
+            if(pos < s.length() && s.charAt(pos) == '!' && !s.startsWith("!=", pos)) {
+                pos++;
+                return new Not(parseUnary());
+            } else if(acceptWord("not")) {
+                return new Not(parseUnary());
+            }
+            return parsePrimary();
+        }
+        
+        private Node parsePrimary() {
+            skipSpace();
+            if(pos == s.length()) {
+                throw new IllegalArgumentException();
+            }
+            char c = s.charAt(pos);
+            
+            Node n;
+            if(c == '(') {
+                pos++;
+                n = parseOr();
+                expect(')');
+                return noSteps(n);
+            } else if(c == '\'') {
+                return noSteps(new Constant(parseString()));
+            } else if(c >= '0' && c <= '9') {
+                return noSteps(new Constant(parseNumber()));
+            } else if(c == '#') {
+                pos++;
+                n = new Variable(parseVariableName());
+            } else {
+                int start = pos;
+                String name = parseName();
+                if(name.equals("true") || name.equals("false")) {
+                    return noSteps(new Constant(Boolean.valueOf(name)));
+                } else if(name.equals("null")) {
+                    return noSteps(new Constant(null));
+                }
+                n = new Property(null, checkName(name), start);
+            }
+            
+            while(true) {
+                skipSpace();
+                if(pos < s.length() && s.charAt(pos) == '.') {
+                    pos++;
+                    skipSpace();
+                    int start = pos;
+                    n = new Property(n, checkName(parseName()), start);
+                } else if(pos < s.length() && s.charAt(pos) == '[') {
+                    int start = pos++;
+                    n = new Index(n, parseIndex(), start);
+                    expect(']');
+                } else {
+                    return n;
+                }
+            }
+        }
+        
+        private Node parseIndex() {
+            skipSpace();
+            if(pos == s.length()) {
+                throw new IllegalArgumentException();
+            }
+            char c = s.charAt(pos);
+            if(c == '\'') {
+                return new Constant(parseString());
+            } else if(c >= '0' && c <= '9') {
+                Object n = parseNumber();
+                if(!(n instanceof Integer)) {
+                    throw new IllegalArgumentException();
+                }
+                return new Constant(n);
+            } else if(c == '#') {
+                pos++;
+                return new Variable(parseVariableName());
+            }
+            throw new IllegalArgumentException();
+        }
+        
+        // literals and groups can not be navigated in the subset
+        private Node noSteps(Node n) {
+            skipSpace();
+            if(pos < s.length() && (s.charAt(pos) == '.' || s.charAt(pos) == '[')) {
+                throw new IllegalArgumentException();
+            }
+            return n;
+        }
+        
+        private String parseVariableName() {
+            String name = parseName();
+            if(name.equals("this") || name.equals("root")) {
+                throw new IllegalArgumentException();
+            }
+            return checkName(name);
+        }
+        
+        // rejects reserved names and method calls
+        private String checkName(String name) {
+            if(RESERVED.contains(name.toLowerCase(Locale.ENGLISH))) {
+                throw new IllegalArgumentException();
+            }
+            skipSpace();
+            if(pos < s.length() && s.charAt(pos) == '(') {
+                throw new IllegalArgumentException();
+            }
+            return name;
+        }
+        
+        private String parseName() {
+            int start = pos;
+            while(pos < s.length() && isNameChar(s.charAt(pos), pos == start)) {
+                pos++;
+            }
+            if(pos == start) {
+                throw new IllegalArgumentException();
+            }
+            return s.substring(start, pos);
+        }
+        
+        private String parseString() {
+            int end = s.indexOf('\'', pos + 1);
+            // quotes escaped by doubling are left to SpEL
+            if(end < 0 || (end + 1 < s.length() && s.charAt(end + 1) == '\'')) {
+                throw new IllegalArgumentException();
+            }
+            String value = s.substring(pos + 1, end);
+            pos = end + 1;
+            return value;
+        }
+        
+        private Object parseNumber() {
+            int start = pos;
+            while(pos < s.length() && isDigit(s.charAt(pos))) {
+                pos++;
+            }
+            boolean real = false;
+            if(pos + 1 < s.length() && s.charAt(pos) == '.' && isDigit(s.charAt(pos + 1))) {
+                real = true;
+                pos++;
+                while(pos < s.length() && isDigit(s.charAt(pos))) {
+                    pos++;
+                }
+            }
+            String text = s.substring(start, pos);
+            
+            boolean isLong = !real && pos < s.length() && (s.charAt(pos) == 'L' || s.charAt(pos) == 'l');
+            if(isLong) {
+                pos++;
+            }
+            // exponents, suffixes, hex numbers and such are left to SpEL
+            if(pos < s.length() && (isNameChar(s.charAt(pos), false) || s.charAt(pos) == '.')) {
+                throw new IllegalArgumentException();
+            }
+            
+            if(real) {
+                return Double.valueOf(text);
+            }
+            return isLong ? (Object) Long.valueOf(text) : (Object) Integer.valueOf(text);
+        }
+        
+        private int acceptRelation() {
+            skipSpace();
+            for(int i = OPERATORS.length - 1; i >= 0; i--) {
+                if(s.startsWith(OPERATORS[i], pos)) {
+                    pos += OPERATORS[i].length();
+                    return i;
+                }
+            }
+            for(int i = 0; i < NAMED_OPERATORS.length; i++) {
+                if(acceptWord(NAMED_OPERATORS[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        
+        private boolean acceptWord(String word) {
+            skipSpace();
+            int end = pos + word.length();
+            if(s.startsWith(word, pos) && (end == s.length() || !isNameChar(s.charAt(end), false))) {
+                pos = end;
+                return true;
+            }
+            return false;
+        }
+        
+        private void expect(char c) {
+            skipSpace();
+            if(pos == s.length() || s.charAt(pos) != c) {
+                throw new IllegalArgumentException();
+            }
+            pos++;
+        }
+        
+        private void skipSpace() {
+            while(pos < s.length()) {
+                char c = s.charAt(pos);
+                if(c != ' ' && c != '\t' && c != '\r' && c != '\n') {
+                    break;
+                }
+                pos++;
+            }
+        }
+        
+        private static boolean isDigit(char c) {
+            return c >= '0' && c <= '9';
+        }
+        
+        private static boolean isNameChar(char c, boolean first) {
+            return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' 
+                || (!first && isDigit(c));
+        }
+        
+    }
+
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.code.activetemplates.impl;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Decides which expressions can be memoized within one render.
+ * 
+ * Model entries declared pure must not change while a template renders, 
+ * and neither may anything reachable through their properties.
+ * Variables declared pure must never change at all.
+ * An expression is pure if it reads nothing but properties of pure entries
+ * and variables: it may not reference other variables, call methods or 
+ * functions, create objects or assign anything. For templates only the 
+ * expression parts are checked.
+ * 
+ * Decisions are cached by expression text, the same way as parsed 
+ * expressions are.
+ * 
+ * @author sleepless
+ */
+class PureExpressions {
+
+    private static final Set<String> KEYWORDS = new HashSet<String>(Arrays.asList(
+            "and", "or", "not", "eq", "ne", "lt", "gt", "le", "ge", "div", "mod",
+            "instanceof", "matches", "between", "true", "false", "null"));
+    
+    private final Set<String> entries;
+    private final Set<String> variables;
+    private final int maxSize;
+    private final ConcurrentMap<String, Boolean> expressions;
+    private final ConcurrentMap<String, Boolean> templates;
+    
+    /**
+     * @param entries - names of pure model entries
+     * @param variables - names of pure variables
+     * @param maxSize - maximum number of cached decisions
+     */
+    public PureExpressions(Set<String> entries, Set<String> variables, int maxSize) {
+        this.entries = Collections.unmodifiableSet(new HashSet<String>(entries));
+        this.variables = Collections.unmodifiableSet(new HashSet<String>(variables));
+        this.maxSize = maxSize;
+        expressions = new ConcurrentHashMap<String, Boolean>();
+        templates = new ConcurrentHashMap<String, Boolean>();
+    }
+    
+    public Set<String> getEntries() {
+        return entries;
+    }
+    
+    /**
+     * Returns true if result of specified expression can be reused 
+     * within a render
+     * 
+     * @param expression
+     * @return
+     */
+    public boolean isPure(String expression) {
+        Boolean pure = expressions.get(expression);
+        if(pure == null) {
+            pure = isPure(expression, 0, expression.length());
+            if(expressions.size() < maxSize) {
+                expressions.put(expression, pure);
+            }
+        }
+        return pure.booleanValue();
+    }
+    
+    /**
+     * Returns true if result of specified template can be reused
+     * within a render
+     * 
+     * @param template
+     * @return
+     */
+    public boolean isPureTemplate(String template) {
+        Boolean pure = templates.get(template);
+        if(pure == null) {
+            pure = isPureTemplate(template, 0);
+            if(templates.size() < maxSize) {
+                templates.put(template, pure);
+            }
+        }
+        return pure.booleanValue();
+    }
+    
+    private boolean isPureTemplate(String template, int from) {
+        int start = template.indexOf("${", from);
+        while(start >= 0) {
+            // expression ends at the brace which closes it
+            int depth = 0;
+            int end = -1;
+            for(int i = start + 2; i < template.length() && end < 0; i++) {
+                char c = template.charAt(i);
+                if(c == '\'') {
+                    i = template.indexOf('\'', i + 1);
+                    if(i < 0) {
+                        return false;
+                    }
+                } else if(c == '{') {
+                    depth++;
+                } else if(c == '}') {
+                    if(depth == 0) {
+                        end = i;
+                    }
+                    depth--;
+                }
+            }
+            if(end < 0 || !isPure(template, start + 2, end)) {
+                return false;
+            }
+            start = template.indexOf("${", end + 1);
+        }
+        return true;
+    }
+    
+    private boolean isPure(String expression, int start, int end) {
+        char prev = ' ';
+        int i = start;
+        while(i < end) {
+            char c = expression.charAt(i);
+            
+            if(c == '\'') {
+                // string literal, quotes inside are doubled
+                int close = expression.indexOf('\'', i + 1);
+                if(close < 0 || close >= end) {
+                    return false;
+                }
+                i = close + 1;
+                prev = '\'';
+                continue;
+            }
+            
+            if(c == '#') {
+                int e = i + 1;
+                while(e < end && Character.isJavaIdentifierPart(expression.charAt(e))) {
+                    e++;
+                }
+                if(!variables.contains(expression.substring(i + 1, e))) {
+                    return false;
+                }
+                i = e;
+                prev = 'a';
+                continue;
+            }
+            
+            if(c == '(' || c == '@' || c == '"') {
+                return false;
+            }
+            if(c == '=') {
+                char next = i + 1 < end ? expression.charAt(i + 1) : ' ';
+                if(next != '=' && prev != '=' && prev != '!' && prev != '<' && prev != '>') {
+                    return false;
+                }
+            }
+            
+            if(Character.isJavaIdentifierStart(c)) {
+                int e = i + 1;
+                while(e < end && Character.isJavaIdentifierPart(expression.charAt(e))) {
+                    e++;
+                }
+                // identifiers which do not follow a dot are read from the model
+                String name = expression.substring(i, e);
+                if(prev != '.' && !KEYWORDS.contains(name.toLowerCase()) && !entries.contains(name)) {
+                    return false;
+                }
+                i = e;
+                prev = 'a';
+                continue;
+            }
+            
+            if(Character.isDigit(c)) {
+                // numbers, including their exponents and suffixes
+                while(i < end && (Character.isLetterOrDigit(expression.charAt(i)) || expression.charAt(i) == '.')) {
+                    i++;
+                }
+                prev = '0';
+                continue;
+            }
+            
+            if(!Character.isWhitespace(c)) {
+                prev = c;
+            }
+            i++;
+        }
+        return true;
+    }
+    
+}
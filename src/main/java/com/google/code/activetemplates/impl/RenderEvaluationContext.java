@@ -0,0 +1,177 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.code.activetemplates.impl;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.expression.ConstructorResolver;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.MethodResolver;
+import org.springframework.expression.OperatorOverloader;
+import org.springframework.expression.PropertyAccessor;
+import org.springframework.expression.TypeComparator;
+import org.springframework.expression.TypeConverter;
+import org.springframework.expression.TypeLocator;
+import org.springframework.expression.TypedValue;
+
+/**
+ * Evaluation context of a render. 
+ * 
+ * It only holds root object and variables of the render, resolvers,
+ * accessors, converters and registered functions are taken from the base 
+ * context, which is shared by all renders. Context is reset between 
+ * renders, so variables set by one render are never seen by another.
+ * 
+ * Local variables are kept in an array indexed by their slots, and 
+ * variables of other names in a map.
+ * 
+ * @author sleepless
+ */
+class RenderEvaluationContext implements EvaluationContext {
+
+    /**
+     * Value of local variables which are not set
+     */
+    static final Object UNSET = new Object();
+    
+    private final Map<String, Object> variables;
+    private final LocalVariables locals;
+    private Object[] slots;
+    private int usedSlots;
+    private EvaluationContext base;
+    private TypedValue rootObject;
+
+    public RenderEvaluationContext(LocalVariables locals) {
+        this.locals = locals;
+        variables = new HashMap<String, Object>();
+        slots = new Object[16];
+        Arrays.fill(slots, UNSET);
+        rootObject = TypedValue.NULL;
+    }
+
+    /**
+     * Sets base context and root object of the next render 
+     * and removes all variables
+     * 
+     * @param base - shared context, which must not be modified by renders
+     * @param root
+     */
+    public void reset(EvaluationContext base, Object root) {
+        this.base = base;
+        rootObject = root == null ? TypedValue.NULL : new TypedValue(root);
+        variables.clear();
+        Arrays.fill(slots, 0, usedSlots, UNSET);
+        usedSlots = 0;
+    }
+    
+    public LocalVariables getLocals() {
+        return locals;
+    }
+    
+    /**
+     * Returns value of the local variable in specified slot, or UNSET
+     * 
+     * @param slot
+     * @return
+     */
+    public Object getLocal(int slot) {
+        return slot < slots.length ? slots[slot] : UNSET;
+    }
+    
+    /**
+     * Stores value of the local variable in specified slot
+     * 
+     * @param slot
+     * @param value - value or UNSET
+     * @return previous value of the variable, or UNSET
+     */
+    public Object setLocal(int slot, Object value) {
+        if(slot >= slots.length) {
+            int length = slots.length;
+            slots = Arrays.copyOf(slots, Math.max(length * 2, slot + 1));
+            Arrays.fill(slots, length, slots.length, UNSET);
+        }
+        if(slot >= usedSlots) {
+            usedSlots = slot + 1;
+        }
+        Object previous = slots[slot];
+        slots[slot] = value;
+        return previous;
+    }
+
+    public TypedValue getRootObject() {
+        return rootObject;
+    }
+
+    public void setVariable(String name, Object value) {
+        int slot = locals.getSlot(name);
+        if(slot >= 0) {
+            setLocal(slot, value);
+        } else {
+            variables.put(name, value);
+        }
+    }
+
+    // variables of the render hide functions of the base context
+    public Object lookupVariable(String name) {
+        int slot = locals.getSlot(name);
+        if(slot >= 0) {
+            Object value = getLocal(slot);
+            if(value != UNSET) {
+                return value;
+            }
+        }
+        
+        Object value = variables.get(name);
+        if(value == null && !variables.containsKey(name)) {
+            value = base.lookupVariable(name);
+        }
+        return value;
+    }
+
+    public List<ConstructorResolver> getConstructorResolvers() {
+        return base.getConstructorResolvers();
+    }
+
+    public List<MethodResolver> getMethodResolvers() {
+        return base.getMethodResolvers();
+    }
+
+    public List<PropertyAccessor> getPropertyAccessors() {
+        return base.getPropertyAccessors();
+    }
+
+    public TypeLocator getTypeLocator() {
+        return base.getTypeLocator();
+    }
+
+    public TypeConverter getTypeConverter() {
+        return base.getTypeConverter();
+    }
+
+    public TypeComparator getTypeComparator() {
+        return base.getTypeComparator();
+    }
+
+    public OperatorOverloader getOperatorOverloader() {
+        return base.getOperatorOverloader();
+    }
+
+}
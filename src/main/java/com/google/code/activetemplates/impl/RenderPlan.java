@@ -0,0 +1,1062 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.code.activetemplates.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.EndElement;
+import javax.xml.stream.events.Namespace;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+import com.google.code.activetemplates.events.AttributeHandler;
+import com.google.code.activetemplates.events.ElementHandler;
+import com.google.code.activetemplates.lib.attributes.IfAt;
+import com.google.code.activetemplates.lib.elements.ContainerEl;
+import com.google.code.activetemplates.lib.elements.EachEl;
+import com.google.code.activetemplates.lib.elements.MessageEl;
+import com.google.code.activetemplates.lib.elements.NobrEl;
+import com.google.code.activetemplates.lib.elements.conditional.ConditionalEl;
+import com.google.code.activetemplates.lib.elements.conditional.ElseEl;
+import com.google.code.activetemplates.lib.elements.conditional.IfEl;
+import com.google.code.activetemplates.spi.CompilableAttributeHandler;
+import com.google.code.activetemplates.spi.CompilableElementHandler;
+import com.google.code.activetemplates.spi.RenderContext;
+import com.google.code.activetemplates.spi.RenderNode;
+import com.google.code.activetemplates.util.ObjectIterator;
+import com.google.code.activetemplates.xml.SerializingEventWriter;
+
+/**
+ * Compiled form of a template program.
+ *
+ * Template is lowered into a tree of render nodes: static markup is written
+ * as prebuilt events, or pre-encoded segments when serialized directly, 
+ * text and attribute expressions are evaluated in place,
+ * and builtin at:each, at:if, at:else and at:conditional elements become
+ * plain java loops and branches instead of event queue manipulation.
+ *
+ * Expressions in at:each bodies, which do not depend on variables of the 
+ * loop, are found when plan is built and evaluated once per loop entry,
+ * when they are first used, rather than on every iteration. Expressions
+ * which call methods are never hoisted, while property reads are assumed
+ * to have no side effects.
+ *
+ * Elements and attributes of other handlers are compiled by the handlers
+ * themselves, if they implement CompilableElementHandler or 
+ * CompilableAttributeHandler, and otherwise become nodes, which run the 
+ * event interpreter over their own subtree only. Such subtrees may assign
+ * variables, so nothing is hoisted out of loops that contain them.
+ * Plan is left uncompiled only if at:if and at:else elements, which share
+ * scope of an at:conditional, would end up interpreted, or if 
+ * the program is not well formed.
+ *
+ * @author sleepless
+ */
+class RenderPlan {
+
+    // builtin handlers, which are compiled by the plan itself
+    private static final Set<Class<?>> BUILTINS = new HashSet<Class<?>>(Arrays.<Class<?>>asList(
+            EachEl.class, IfEl.class, ElseEl.class, ConditionalEl.class, 
+            ContainerEl.class, NobrEl.class, MessageEl.class, IfAt.class));
+    
+    private final TemplateProgram program;
+    private final Node[] nodes;
+    private final int invariantCount;
+
+    private RenderPlan(TemplateProgram program, Node[] nodes, int invariantCount) {
+        this.program = program;
+        this.nodes = nodes;
+        this.invariantCount = invariantCount;
+    }
+
+    /**
+     * Builds a plan for specified program. Returned plan is not compiled if
+     * the program uses anything outside of supported subset.
+     *
+     * @param p
+     * @param h
+     * @param excludedNamespaces
+     * @param ef
+     * @param locals - slots of local variables
+     * @param interpreter - renders parts of the program, which are not compiled
+     * @return
+     */
+    public static RenderPlan build(TemplateProgram p, Handlers h, Set<String> excludedNamespaces, XMLEventFactory ef, 
+            LocalVariables locals, Interpreter interpreter) {
+        Builder b = new Builder(p, h, excludedNamespaces, ef, locals, interpreter);
+        Node[] nodes;
+        try {
+            nodes = b.children(0, p.size(), Scope.NONE);
+        } catch(NotCompilableException e) {
+            nodes = null;
+        }
+        return new RenderPlan(p, nodes, b.invariantCount);
+    }
+
+    public boolean isPlanOf(TemplateProgram p) {
+        return program == p;
+    }
+
+    public boolean isCompiled() {
+        return nodes != null;
+    }
+
+    public void render(CompileContext cc) throws XMLStreamException {
+        if(nodes == null) throw new IllegalStateException("Template is not compiled");
+        cc.prepareInvariants(invariantCount);
+        renderAll(cc, nodes);
+    }
+
+    private static void renderAll(CompileContext cc, Node[] nodes) throws XMLStreamException {
+        for(Node n: nodes) {
+            n.render(cc);
+        }
+    }
+
+    /**
+     * Runs event interpreter over the program range of the context
+     */
+    interface Interpreter {
+        
+        public void interpret(CompileContext cc) throws XMLStreamException;
+        
+    }
+
+    // how at:if and at:else elements relate to the enclosing at:conditional
+    private enum Scope {
+
+        /**
+         * No conditional scope, at:if elements are standalone
+         */
+        NONE,
+
+        /**
+         * Direct children of at:conditional, branches share its scope
+         */
+        DIRECT,
+
+        /**
+         * Deeper descendants of at:conditional, which would share its scope
+         * through event environment and therefore cannot be compiled
+         */
+        NESTED;
+
+        Scope inner() {
+            return this == NONE ? NONE : NESTED;
+        }
+    }
+
+    private static class NotCompilableException extends Exception {
+        private static final long serialVersionUID = 1L;
+    }
+
+    private static class Builder {
+
+        private TemplateProgram p;
+        private Handlers h;
+        private Set<String> excludedNamespaces;
+        private XMLEventFactory ef;
+        private LocalVariables locals;
+        private Interpreter interpreter;
+        
+        // loops enclosing nodes being built, outermost first
+        private List<Loop> loops = new ArrayList<Loop>();
+        private int invariantCount;
+
+        Builder(TemplateProgram p, Handlers h, Set<String> excludedNamespaces, XMLEventFactory ef, 
+                LocalVariables locals, Interpreter interpreter) {
+            this.p = p;
+            this.h = h;
+            this.excludedNamespaces = excludedNamespaces;
+            this.ef = ef;
+            this.locals = locals;
+            this.interpreter = interpreter;
+        }
+
+        Node[] children(int from, int to, Scope scope) throws NotCompilableException {
+            List<Node> nodes = new ArrayList<Node>();
+            boolean strip = false;
+
+            int i = from;
+            while(i < to) {
+                XMLEvent e = p.getEvent(i);
+
+                if(e.isCharacters()) {
+
+                    String data = e.asCharacters().getData();
+                    if(strip) {
+                        // text after at:nobr loses its leading whitespace
+                        data = data.replaceAll("^[\\s]*", "");
+                        e = ef.createCharacters(data);
+                    }
+                    nodes.add(TemplateProgram.isTemplate(data) ? new TextNode(e, expression(data)) : new EventNode(e));
+                    strip = false;
+                    i++;
+                    continue;
+                }
+                strip = false;
+
+                if(!e.isStartElement() || p.getEnd(i) < 0) {
+                    throw new NotCompilableException();
+                }
+
+                StartElement se = e.asStartElement();
+                int end = p.getEnd(i);
+
+                ElementHandler eh = h.getElementHandler(se.getName());
+                if(eh != null) {
+                    nodes.add(handledElement(eh, se, i, end, scope));
+                    strip = eh.getClass() == NobrEl.class;
+                } else {
+                    nodes.add(element(se, p.getEvent(end).asEndElement(), i, end, scope));
+                }
+
+                i = end + 1;
+            }
+
+            return segments(nodes, from < to ? p.getNamespaceContext(from) : null);
+        }
+
+        // replaces runs of static nodes with pre-encoded segments, encoded 
+        // for namespaces bound where nodes are written
+        private static Node[] segments(List<Node> nodes, NamespaceContext context) {
+            List<Node> result = new ArrayList<Node>();
+            List<Node> run = new ArrayList<Node>();
+            List<XMLEvent> events = new ArrayList<XMLEvent>();
+
+            for(Node n: nodes) {
+                int size = events.size();
+                if(n.collectEvents(events)) {
+                    run.add(n);
+                } else {
+                    events.subList(size, events.size()).clear();
+                    addSegment(result, run, events, context);
+                    result.add(n);
+                }
+            }
+            addSegment(result, run, events, context);
+
+            return result.toArray(new Node[result.size()]);
+        }
+
+        private static void addSegment(List<Node> result, List<Node> run, List<XMLEvent> events, 
+                NamespaceContext context) {
+            if(run.isEmpty()) {
+                return;
+            }
+            SerializingEventWriter.Segment s = SerializingEventWriter.createSegment(events, context);
+            if(s != null) {
+                result.add(new SegmentNode(s));
+            } else {
+                result.addAll(run);
+            }
+            run.clear();
+            events.clear();
+        }
+
+        private Node handledElement(ElementHandler eh, StartElement se, int start, int end, Scope scope) throws NotCompilableException {
+
+            Class<?> cl = eh.getClass();
+            
+            // attributes of handled elements are used as is
+            @SuppressWarnings("unchecked")
+            Iterator<Attribute> it = se.getAttributes();
+            while(it.hasNext()) {
+                Attribute a = it.next();
+                if(h.getAttributeHandler(a.getName()) != null || TemplateProgram.isTemplate(a.getValue())) {
+                    if(cl == IfEl.class || cl == ElseEl.class || cl == ConditionalEl.class) {
+                        throw new NotCompilableException();
+                    }
+                    return interpreted(start, end, scope);
+                }
+            }
+
+            if(cl == EachEl.class) {
+
+                String data = getAttribute(se, EachEl.ATTR_DATA, true);
+                String value = getAttribute(se, EachEl.ATTR_VALUE, true);
+                String index = getAttribute(se, EachEl.ATTR_INDEX, false);
+                String key = getAttribute(se, EachEl.ATTR_KEY, false);
+
+                String[] vars = { value, index, key };
+                int[] slots = new int[vars.length];
+                for(int i = 0; i < vars.length; i++) {
+                    String name = vars[i] == null ? null : LocalVariables.getName(vars[i]);
+                    slots[i] = name == null ? -1 : locals.declare(name);
+                }
+                
+                Loop loop = loop(start, end);
+                loops.add(loop);
+                Node[] body;
+                try {
+                    body = children(start + 1, end, scope.inner());
+                } finally {
+                    loops.remove(loops.size() - 1);
+                }
+                
+                return new EachNode(data, vars, slots, loop.getInvariants(), body);
+
+            } else if(cl == IfEl.class) {
+
+                if(scope == Scope.NESTED) throw new NotCompilableException();
+                String condition = getAttribute(se, IfEl.ATTR_CONDITION, true);
+                return new IfNode(expression(condition), children(start + 1, end, Scope.NONE));
+
+            } else if(cl == ElseEl.class) {
+
+                if(scope != Scope.DIRECT) throw new NotCompilableException();
+                String condition = getAttribute(se, ElseEl.ATTR_CONDITION, false);
+                return new ElseNode(condition == null ? null : expression(condition), children(start + 1, end, Scope.NONE));
+
+            } else if(cl == ConditionalEl.class) {
+
+                return new ConditionalNode(children(start + 1, end, Scope.DIRECT));
+
+            } else if(cl == ContainerEl.class || cl == NobrEl.class) {
+
+                return new GroupNode(children(start + 1, end, scope.inner()));
+
+            } else if(cl == MessageEl.class) {
+                
+                String code = getAttribute(se, MessageEl.ATTR_CODE, true);
+                String arguments = getAttribute(se, MessageEl.ATTR_ARGUMENTS, false);
+                String defaultMessage = getAttribute(se, MessageEl.ATTR_DEFAULT, false);
+                return new MessageNode(code, arguments, defaultMessage);
+                
+            } else if(eh instanceof CompilableElementHandler) {
+                
+                Node[] body;
+                try {
+                    body = children(start + 1, end, scope.inner());
+                } catch(NotCompilableException e) {
+                    return interpreted(start, end, scope);
+                }
+                RenderNode n = ((CompilableElementHandler) eh).compile(se, new PlanNode(body));
+                if(n != null) {
+                    return new HandlerNode(n);
+                }
+                
+            }
+
+            return interpreted(start, end, scope);
+        }
+        
+        // subtree which is rendered by event interpreter
+        private Node interpreted(int start, int end, Scope scope) throws NotCompilableException {
+            if(scope != Scope.NONE) {
+                // branches would not find the scope of compiled conditional
+                for(int i = start; i <= end; i++) {
+                    XMLEvent e = p.getEvent(i);
+                    if(!e.isStartElement()) {
+                        continue;
+                    }
+                    ElementHandler eh = h.getElementHandler(e.asStartElement().getName());
+                    if(eh != null && (eh.getClass() == IfEl.class || eh.getClass() == ElseEl.class 
+                            || eh.getClass() == ConditionalEl.class)) {
+                        throw new NotCompilableException();
+                    }
+                }
+            }
+            return new InterpretedNode(start, end, interpreter);
+        }
+
+        private Node element(StartElement se, EndElement ee, int start, int end, Scope scope) throws NotCompilableException {
+
+            boolean replace = false;
+            boolean dynamic = false;
+            Expression condition = null;
+
+            List<Attribute> attributes = new ArrayList<Attribute>();
+            List<Boolean> dynamicAttributes = new ArrayList<Boolean>();
+            List<Attribute> compiledAttributes = new ArrayList<Attribute>();
+
+            @SuppressWarnings("unchecked")
+            Iterator<Attribute> it = se.getAttributes();
+            while(it.hasNext()) {
+                Attribute a = it.next();
+
+                AttributeHandler ah = h.getAttributeHandler(a.getName());
+                if(ah != null) {
+                    if(ah.getClass() == IfAt.class) {
+                        condition = expression(a.getValue());
+                    } else if(ah instanceof CompilableAttributeHandler) {
+                        compiledAttributes.add(a);
+                    } else {
+                        return interpreted(start, end, scope);
+                    }
+                    replace = true;
+                } else {
+                    boolean d = TemplateProgram.isTemplate(a.getValue());
+                    attributes.add(a);
+                    dynamicAttributes.add(Boolean.valueOf(d));
+                    dynamic |= d;
+                }
+            }
+
+            List<Namespace> namespaces = new ArrayList<Namespace>();
+
+            @SuppressWarnings("unchecked")
+            Iterator<Namespace> nsit = se.getNamespaces();
+            while(nsit.hasNext()) {
+                Namespace ns = nsit.next();
+                if(excludedNamespaces.contains(ns.getNamespaceURI())) {
+                    replace = true;
+                } else {
+                    namespaces.add(ns);
+                }
+            }
+
+            if(!compiledAttributes.isEmpty() && condition != null) {
+                // wrappers would be rendered even if element is not
+                return interpreted(start, end, scope);
+            }
+
+            Node[] children = children(start + 1, end, scope.inner());
+            Node node;
+
+            if(!dynamic) {
+                if(replace) {
+                    se = ef.createStartElement(se.getName(), attributes.iterator(), namespaces.iterator());
+                }
+                node = new ElementNode(se, ee, condition, children);
+            } else {
+                Expression[] d = new Expression[dynamicAttributes.size()];
+                for(int i = 0; i < d.length; i++) {
+                    if(dynamicAttributes.get(i).booleanValue()) {
+                        d[i] = expression(attributes.get(i).getValue());
+                    }
+                }
+    
+                node = new DynamicElementNode(se.getName(),
+                        attributes.toArray(new Attribute[attributes.size()]), d,
+                        namespaces.toArray(new Namespace[namespaces.size()]),
+                        ee, condition, children);
+            }
+            
+            // first attribute ends up outermost
+            for(int i = compiledAttributes.size() - 1; i >= 0; i--) {
+                Attribute a = compiledAttributes.get(i);
+                CompilableAttributeHandler ah = (CompilableAttributeHandler) h.getAttributeHandler(a.getName());
+                RenderNode n = ah.compile(a, new PlanNode(new Node[]{ node }));
+                if(n == null) {
+                    return interpreted(start, end, scope);
+                }
+                node = new HandlerNode(n);
+            }
+            return node;
+        }
+
+        // finds variables assigned by at:each elements of the loop.
+        // other handlers might assign anything
+        private Loop loop(int start, int end) {
+            Loop loop = new Loop();
+            for(int i = start; i < end; i++) {
+                XMLEvent e = p.getEvent(i);
+                if(!e.isStartElement()) {
+                    continue;
+                }
+                StartElement se = e.asStartElement();
+                
+                @SuppressWarnings("unchecked")
+                Iterator<Attribute> it = se.getAttributes();
+                while(it.hasNext()) {
+                    AttributeHandler ah = h.getAttributeHandler(it.next().getName());
+                    if(ah != null && !BUILTINS.contains(ah.getClass())) {
+                        loop.opaque = true;
+                    }
+                }
+                
+                ElementHandler eh = h.getElementHandler(se.getName());
+                if(eh != null && !BUILTINS.contains(eh.getClass())) {
+                    loop.opaque = true;
+                }
+                if(eh == null || eh.getClass() != EachEl.class) {
+                    continue;
+                }
+                
+                for(QName attr: new QName[]{ EachEl.ATTR_VALUE, EachEl.ATTR_INDEX, EachEl.ATTR_KEY }) {
+                    Attribute a = se.getAttributeByName(attr);
+                    if(a != null) {
+                        String name = LocalVariables.getName(a.getValue());
+                        if(name == null) {
+                            // loop assigns something other than a variable
+                            loop.opaque = true;
+                        } else {
+                            loop.variables.add(name);
+                        }
+                    }
+                }
+            }
+            // loops enclosing an opaque loop are opaque as well
+            for(Loop l: loops) {
+                l.opaque |= loop.opaque;
+            }
+            return loop;
+        }
+        
+        // returns expression, which is hoisted to the outermost loop it is invariant in
+        private Expression expression(String expression) {
+            Set<String> variables = getVariables(expression);
+            if(variables != null) {
+                for(Loop l: loops) {
+                    if(!l.opaque && Collections.disjoint(variables, l.variables)) {
+                        int slot = invariantCount++;
+                        l.invariants.add(slot);
+                        return new Expression(expression, slot);
+                    }
+                }
+            }
+            return new Expression(expression, -1);
+        }
+        
+        /**
+         * Returns names of variables referenced by expression or template, 
+         * or null if it might call methods or assign anything and 
+         * therefore should be evaluated every time.
+         * Text is scanned as a whole, so literal text of templates 
+         * counts as well.
+         * 
+         * @param expression
+         * @return
+         */
+        static Set<String> getVariables(String expression) {
+            if(expression.indexOf('(') >= 0) {
+                return null;
+            }
+            
+            Set<String> variables = new HashSet<String>();
+            int length = expression.length();
+            for(int i = 0; i < length; i++) {
+                char c = expression.charAt(i);
+                if(c == '=') {
+                    char prev = i > 0 ? expression.charAt(i - 1) : ' ';
+                    char next = i + 1 < length ? expression.charAt(i + 1) : ' ';
+                    if(next != '=' && prev != '=' && prev != '!' && prev != '<' && prev != '>') {
+                        return null;
+                    }
+                } else if(c == '#') {
+                    int end = i + 1;
+                    while(end < length && (Character.isLetterOrDigit(expression.charAt(end)) || expression.charAt(end) == '_')) {
+                        end++;
+                    }
+                    variables.add(expression.substring(i + 1, end));
+                    i = end - 1;
+                }
+            }
+            return variables;
+        }
+
+        private static String getAttribute(StartElement se, QName name, boolean required) throws NotCompilableException {
+            Attribute a = se.getAttributeByName(name);
+            if(a == null) {
+                if(required) throw new NotCompilableException();
+                return null;
+            }
+            return a.getValue();
+        }
+
+    }
+
+    private static class Loop {
+        
+        // variables assigned in the loop, including nested loops
+        final Set<String> variables = new HashSet<String>();
+        final List<Integer> invariants = new ArrayList<Integer>();
+        boolean opaque;
+        
+        int[] getInvariants() {
+            int[] slots = new int[invariants.size()];
+            for(int i = 0; i < slots.length; i++) {
+                slots[i] = invariants.get(i);
+            }
+            return slots;
+        }
+    }
+    
+    /**
+     * Expression of a node. Expressions invariant in a loop have a slot,
+     * which keeps their value from the first use after loop entry.
+     */
+    private static class Expression {
+        
+        private final String text;
+        private final int slot;
+        
+        Expression(String text, int slot) {
+            this.text = text;
+            this.slot = slot;
+        }
+        
+        String processText(CompileContext cc) {
+            if(slot < 0) {
+                return TemplateCompilerImpl.processText(cc, text);
+            }
+            Object value = cc.getInvariant(slot);
+            if(value == CompileContext.NO_VALUE) {
+                value = TemplateCompilerImpl.processText(cc, text);
+                cc.setInvariant(slot, value);
+            }
+            return (String) value;
+        }
+        
+        boolean test(CompileContext cc) {
+            if(slot < 0) {
+                return cc.parseExpression(text, Boolean.class).booleanValue();
+            }
+            Object value = cc.getInvariant(slot);
+            if(value == CompileContext.NO_VALUE) {
+                value = cc.parseExpression(text, Boolean.class);
+                cc.setInvariant(slot, value);
+            }
+            return ((Boolean) value).booleanValue();
+        }
+    }
+
+    private static abstract class Node {
+
+        abstract void render(CompileContext cc) throws XMLStreamException;
+
+        /**
+         * Adds events this node always writes to the list
+         * @param events
+         * @return false if output of this node is not static
+         */
+        boolean collectEvents(List<XMLEvent> events) {
+            return false;
+        }
+
+    }
+
+    /**
+     * Node of a handler, which compiled its element or attribute
+     */
+    private static class HandlerNode extends Node {
+        
+        private final RenderNode node;
+        
+        HandlerNode(RenderNode node) {
+            this.node = node;
+        }
+        
+        @Override
+        void render(CompileContext cc) throws XMLStreamException {
+            node.render(cc);
+        }
+    }
+    
+    /**
+     * Plan nodes, as passed to compilable handlers. Handlers may pass 
+     * their own render context to them, as long as it unwraps to the 
+     * context of the render.
+     */
+    private static class PlanNode implements RenderNode {
+        
+        private final Node[] nodes;
+        
+        PlanNode(Node[] nodes) {
+            this.nodes = nodes;
+        }
+        
+        public void render(RenderContext context) throws XMLStreamException {
+            CompileContext cc = context.unwrap(CompileContext.class);
+            if(cc == null) {
+                throw new IllegalArgumentException("Render context " + context + " does not belong to a render");
+            }
+            renderAll(cc, nodes);
+        }
+    }
+    
+    /**
+     * Subtree of a handler, which can not be compiled, rendered by 
+     * event interpreter
+     */
+    private static class InterpretedNode extends Node {
+        
+        private final int start;
+        private final int end;
+        private final Interpreter interpreter;
+        
+        InterpretedNode(int start, int end, Interpreter interpreter) {
+            this.start = start;
+            this.end = end;
+            this.interpreter = interpreter;
+        }
+        
+        @Override
+        void render(CompileContext cc) throws XMLStreamException {
+            int depth = cc.getEnvironmentDepth();
+            int position = cc.getProgramPosition();
+            int programEnd = cc.getProgramEnd();
+            cc.setProgramRange(start, end + 1);
+            try {
+                interpreter.interpret(cc);
+            } finally {
+                cc.restoreEnvironment(depth);
+                cc.setProgramRange(position, programEnd);
+            }
+        }
+    }
+
+    private static class EventNode extends Node {
+
+        private final XMLEvent event;
+
+        EventNode(XMLEvent event) {
+            this.event = event;
+        }
+
+        @Override
+        void render(CompileContext cc) throws XMLStreamException {
+            cc.getWriter().add(event);
+        }
+
+        @Override
+        boolean collectEvents(List<XMLEvent> events) {
+            events.add(event);
+            return true;
+        }
+    }
+
+    private static class SegmentNode extends Node {
+
+        private final SerializingEventWriter.Segment segment;
+
+        SegmentNode(SerializingEventWriter.Segment segment) {
+            this.segment = segment;
+        }
+
+        @Override
+        void render(CompileContext cc) throws XMLStreamException {
+            XMLEventWriter w = cc.getWriter();
+            if(w instanceof SerializingEventWriter) {
+                ((SerializingEventWriter) w).writeSegment(segment);
+            } else {
+                for(int i = 0; i < segment.size(); i++) {
+                    w.add(segment.getEvent(i));
+                }
+            }
+        }
+
+        @Override
+        boolean collectEvents(List<XMLEvent> events) {
+            for(int i = 0; i < segment.size(); i++) {
+                events.add(segment.getEvent(i));
+            }
+            return true;
+        }
+    }
+
+    private static class TextNode extends Node {
+
+        private final XMLEvent event;
+        private final Expression text;
+
+        TextNode(XMLEvent event, Expression text) {
+            this.event = event;
+            this.text = text;
+        }
+
+        @Override
+        void render(CompileContext cc) throws XMLStreamException {
+            String s = text.processText(cc);
+            cc.getWriter().add(s == null ? event : cc.getElementFactory().createCharacters(s));
+        }
+    }
+
+    private static class MessageNode extends Node {
+        
+        private final String code;
+        private final String arguments;
+        private final String defaultMessage;
+        
+        MessageNode(String code, String arguments, String defaultMessage) {
+            this.code = code;
+            this.arguments = arguments;
+            this.defaultMessage = defaultMessage;
+        }
+        
+        @Override
+        void render(CompileContext cc) throws XMLStreamException {
+            Object[] args = arguments == null 
+                    ? null 
+                    : MessageEl.getArguments(cc.parseExpression(arguments, Object.class));
+            String message = cc.getMessage(code, args, defaultMessage);
+            cc.getWriter().add(cc.getElementFactory().createCharacters(message == null ? "" : message));
+        }
+    }
+
+    private static class GroupNode extends Node {
+
+        private final Node[] children;
+
+        GroupNode(Node[] children) {
+            this.children = children;
+        }
+
+        @Override
+        void render(CompileContext cc) throws XMLStreamException {
+            renderAll(cc, children);
+        }
+    }
+
+    private static class ElementNode extends Node {
+
+        private final StartElement start;
+        private final EndElement end;
+        private final Expression condition;
+        private final Node[] children;
+
+        ElementNode(StartElement start, EndElement end, Expression condition, Node[] children) {
+            this.start = start;
+            this.end = end;
+            this.condition = condition;
+            this.children = children;
+        }
+
+        @Override
+        void render(CompileContext cc) throws XMLStreamException {
+            if(condition != null && !condition.test(cc)) {
+                return;
+            }
+
+            XMLEventWriter w = cc.getWriter();
+            w.add(createStart(cc));
+            renderAll(cc, children);
+            w.add(end);
+        }
+
+        StartElement createStart(CompileContext cc) {
+            return start;
+        }
+
+        @Override
+        boolean collectEvents(List<XMLEvent> events) {
+            if(condition != null || getClass() != ElementNode.class) {
+                return false;
+            }
+            events.add(start);
+            for(Node n: children) {
+                if(!n.collectEvents(events)) {
+                    return false;
+                }
+            }
+            events.add(end);
+            return true;
+        }
+    }
+
+    private static class DynamicElementNode extends ElementNode {
+
+        private final QName name;
+        private final Attribute[] attributes;
+        private final Expression[] dynamic;
+        private final List<Namespace> namespaces;
+
+        /**
+         * @param name
+         * @param attributes
+         * @param dynamic - expressions of templated attributes, null for others
+         * @param namespaces
+         * @param end
+         * @param condition
+         * @param children
+         */
+        DynamicElementNode(QName name, Attribute[] attributes, Expression[] dynamic, Namespace[] namespaces,
+                EndElement end, Expression condition, Node[] children) {
+            super(null, end, condition, children);
+            this.name = name;
+            this.attributes = attributes;
+            this.dynamic = dynamic;
+            this.namespaces = Arrays.asList(namespaces);
+        }
+
+        @Override
+        StartElement createStart(CompileContext cc) {
+            XMLEventFactory ef = cc.getElementFactory();
+
+            List<Attribute> l = cc.getOutputAttributes();
+            for(int i = 0; i < attributes.length; i++) {
+                Attribute a = attributes[i];
+                if(dynamic[i] != null) {
+                    String v = dynamic[i].processText(cc);
+                    if(v != null) {
+                        a = ef.createAttribute(a.getName(), v);
+                    }
+                }
+                l.add(a);
+            }
+            return ef.createStartElement(name, l.iterator(), namespaces.iterator());
+        }
+    }
+
+    private static class EachNode extends Node {
+
+        private final String data;
+        private final String[] vars;
+        private final int[] slots;
+        private final int[] invariants;
+        private final Node[] body;
+
+        /**
+         * @param data
+         * @param vars - value, index and key variables, index and key are optional
+         * @param slots - slots of the variables, or -1 for other expressions
+         * @param invariants - slots of expressions invariant in the loop
+         * @param body
+         */
+        EachNode(String data, String[] vars, int[] slots, int[] invariants, Node[] body) {
+            this.data = data;
+            this.vars = vars;
+            this.slots = slots;
+            this.invariants = invariants;
+            this.body = body;
+        }
+
+        @Override
+        void render(CompileContext cc) throws XMLStreamException {
+            ObjectIterator oit = ObjectIterator.create(cc.parseExpression(data, Object.class));
+            if(!oit.next()) {
+                return;
+            }
+            cc.clearInvariants(invariants);
+            
+            // first iteration keeps values of outer variables of the same names
+            Object outerValue = set(cc, 0, oit.getObject());
+            Object outerIndex = set(cc, 1, oit.getIndex());
+            Object outerKey = set(cc, 2, oit.getKey());
+            renderAll(cc, body);
+            
+            while(oit.next()) {
+                set(cc, 0, oit.getObject());
+                set(cc, 1, oit.getIndex());
+                set(cc, 2, oit.getKey());
+                renderAll(cc, body);
+            }
+            
+            restore(cc, 0, outerValue);
+            restore(cc, 1, outerIndex);
+            restore(cc, 2, outerKey);
+        }
+        
+        private Object set(CompileContext cc, int i, Object value) {
+            if(slots[i] >= 0) {
+                return cc.setVariable(slots[i], value);
+            } else if(vars[i] != null) {
+                cc.setExpressionValue(vars[i], value);
+            }
+            return null;
+        }
+        
+        private void restore(CompileContext cc, int i, Object outer) {
+            if(slots[i] >= 0) {
+                cc.setVariable(slots[i], outer);
+            }
+        }
+    }
+
+    private static class ConditionalNode extends Node {
+
+        private final Node[] children;
+
+        ConditionalNode(Node[] children) {
+            this.children = children;
+        }
+
+        @Override
+        void render(CompileContext cc) throws XMLStreamException {
+            // value of the last evaluated branch, as in ConditionScope
+            Boolean value = null;
+            for(Node n: children) {
+                if(n instanceof BranchNode) {
+                    value = Boolean.valueOf(((BranchNode) n).renderBranch(cc, value));
+                } else {
+                    n.render(cc);
+                }
+            }
+        }
+    }
+
+    private static abstract class BranchNode extends Node {
+
+        protected final Expression condition;
+        protected final Node[] body;
+
+        BranchNode(Expression condition, Node[] body) {
+            this.condition = condition;
+            this.body = body;
+        }
+
+        abstract boolean renderBranch(CompileContext cc, Boolean previous) throws XMLStreamException;
+
+        @Override
+        void render(CompileContext cc) throws XMLStreamException {
+            renderBranch(cc, null);
+        }
+    }
+
+    private static class IfNode extends BranchNode {
+
+        IfNode(Expression condition, Node[] body) {
+            super(condition, body);
+        }
+
+        @Override
+        boolean renderBranch(CompileContext cc, Boolean previous) throws XMLStreamException {
+            boolean cond = condition.test(cc);
+            if(cond) {
+                renderAll(cc, body);
+            }
+            return cond;
+        }
+    }
+
+    private static class ElseNode extends BranchNode {
+
+        ElseNode(Expression condition, Node[] body) {
+            super(condition, body);
+        }
+
+        @Override
+        boolean renderBranch(CompileContext cc, Boolean previous) throws XMLStreamException {
+            if(previous == null) {
+                throw new IllegalStateException("Value for conditional scope is not initialized for else/else if");
+            }
+
+            boolean cond = !previous.booleanValue();
+            if(cond && condition != null) {
+                cond = condition.test(cc);
+            }
+            if(cond) {
+                renderAll(cc, body);
+            }
+            return cond;
+        }
+    }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.code.activetemplates.impl;
+
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.ParserContext;
+import org.springframework.expression.common.TemplateParserContext;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+import com.google.code.activetemplates.spi.CompiledExpression;
+import com.google.code.activetemplates.spi.ExpressionEngine;
+
+/**
+ * Expression engine which parses and evaluates expressions with SpEL.
+ * 
+ * Subclasses may replace parsed expressions with faster equivalents 
+ * by overriding {@link #compile(Expression)}.
+ * 
+ * @author sleepless
+ */
+public class SpelExpressionEngine implements ExpressionEngine {
+
+    private static final ParserContext TEMPLATE_PARSER_CONTEXT = 
+        new TemplateParserContext("${", "}");
+    
+    private final ExpressionParser parser;
+    
+    public SpelExpressionEngine() {
+        this(new SpelExpressionParser());
+    }
+    
+    public SpelExpressionEngine(ExpressionParser parser) {
+        this.parser = parser;
+    }
+    
+    public CompiledExpression parseExpression(String expression) {
+        return compile(parser.parseExpression(expression));
+    }
+
+    public CompiledExpression parseTemplate(String template) {
+        return compile(parser.parseExpression(template, TEMPLATE_PARSER_CONTEXT));
+    }
+    
+    /**
+     * Creates compiled expression from parsed SpEL expression
+     * 
+     * @param expr
+     * @return
+     */
+    protected CompiledExpression compile(Expression expr) {
+        return new SpelCompiledExpression(expr);
+    }
+    
+    /**
+     * Compiled expression evaluated by SpEL
+     */
+    protected static class SpelCompiledExpression implements CompiledExpression {
+        
+        private final Expression expr;
+        
+        public SpelCompiledExpression(Expression expr) {
+            this.expr = expr;
+        }
+        
+        public String getExpressionString() {
+            return expr.getExpressionString();
+        }
+
+        public <T> T getValue(EvaluationContext context, Class<T> type) {
+            return expr.getValue(context, type);
+        }
+
+        public <T> T getValue(EvaluationContext context, Object rootObject, Class<T> type) {
+            return expr.getValue(context, rootObject, type);
+        }
+
+        public void setValue(EvaluationContext context, Object value) {
+            expr.setValue(context, value);
+        }
+        
+    }
+
+}
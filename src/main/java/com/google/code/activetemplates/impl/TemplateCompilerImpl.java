@@ -1,338 +1,861 @@
-/*
- * Copyright 2009 Anton Tanasenko
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *    http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-
-package com.google.code.activetemplates.impl;
-
-import java.io.OutputStream;
-import java.io.Writer;
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Set;
-
-import javax.xml.stream.XMLEventFactory;
-import javax.xml.stream.XMLEventReader;
-import javax.xml.stream.XMLEventWriter;
-import javax.xml.stream.XMLInputFactory;
-import javax.xml.stream.XMLOutputFactory;
-import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.Attribute;
-import javax.xml.stream.events.Characters;
-import javax.xml.stream.events.Namespace;
-import javax.xml.stream.events.StartElement;
-import javax.xml.stream.events.XMLEvent;
-import javax.xml.transform.stream.StreamResult;
-
-import org.codehaus.stax2.XMLOutputFactory2;
-import org.springframework.expression.ExpressionParser;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
-import org.springframework.expression.spel.support.StandardEvaluationContext;
-
-import com.google.code.activetemplates.Template;
-import com.google.code.activetemplates.TemplateCompileException;
-import com.google.code.activetemplates.TemplateCompiler;
-import com.google.code.activetemplates.TemplateModel;
-import com.google.code.activetemplates.events.AttributeHandler;
-import com.google.code.activetemplates.events.ElementHandler;
-import com.google.code.activetemplates.events.AttributeHandler.Outcome;
-import com.google.code.activetemplates.spi.HandlerSPI;
-import com.google.code.activetemplates.spi.Providers;
-import com.google.code.activetemplates.xml.XmlResult;
-import com.google.code.activetemplates.xml.XmlSource;
-import com.google.code.activetemplates.xml.XmlStreamResult;
-
-public class TemplateCompilerImpl implements TemplateCompiler {
-    
-    private XMLOutputFactory outFactory;
-    private XMLInputFactory inFactory;
-    private XMLEventFactory eFactory;
-    private EventComponentFactory eComponentFactory;
-    
-    private Set<String> excludedNamespaces;
-    private ExpressionParser expressionParser;
-
-    private Handlers h;
-    
-    public TemplateCompilerImpl(){
-
-        outFactory = XMLOutputFactory.newInstance();
-        outFactory.setProperty(XMLOutputFactory2.IS_REPAIRING_NAMESPACES, true);
-        inFactory = XMLInputFactory.newInstance();
-        eFactory = XMLEventFactory.newInstance();
-        
-        h = new Handlers();
-        
-        excludedNamespaces = new HashSet<String>();
-        List<HandlerSPI> spis = Providers.getHandlerSPIs();
-        
-        for(HandlerSPI spi: spis) {
-            Set<String> s = spi.getExcludedNamespaces();
-            if(s != null) {
-                excludedNamespaces.addAll(s);
-            }
-        }
-        
-        eComponentFactory = new EventComponentFactory();
-        expressionParser = new SpelExpressionParser();
-    }
-    
-    
-
-    @Override
-    public void compile(Template t, TemplateModel model, OutputStream out) throws TemplateCompileException {
-        compile(t, model, new XmlStreamResult(new StreamResult(out)));
-    }
-
-    @Override
-    public void compile(Template t, TemplateModel model, Writer out) throws TemplateCompileException {
-        compile(t, model, new XmlStreamResult(new StreamResult(out)));
-    }
-
-    @Override
-    public void compile(final Template t, final TemplateModel model, XmlResult out) throws TemplateCompileException {
-        
-        final XmlSource s = t.createSource();
-        XMLEventReader r = null;
-        XMLEventWriter w = null;
-        try {
-            r = inFactory.createXMLEventReader(s.getSource());
-            w = outFactory.createXMLEventWriter(out.getResult());
-            final XMLStreamException[] xe = new XMLStreamException[1];
-
-            final XMLEventReader fr = r;
-            final XMLEventWriter fw = w;
-            
-            StandardEvaluationContext eContext = new StandardEvaluationContext(model);
-            eContext.addPropertyAccessor(new TemplateModelPropertyAccessor());
-                        
-            CompileContext ctx = new CompileContext(fr, fw, 
-                        eFactory, eComponentFactory, expressionParser, eContext);
-            doCompile(t.getName(), ctx);
-            
-            if(xe[0] != null) {
-                throw xe[0];
-            }
-
-        } catch(XMLStreamException e) {
-            throw new TemplateCompileException(e);
-        } finally {
-            s.close();
-            if(r != null) try{ r.close(); } catch(XMLStreamException e){}
-            if(w != null) try{ w.close(); } catch(XMLStreamException e){}
-        }
-    }
-    
-    private void doCompile(String name, CompileContext cc) throws XMLStreamException {
-        
-        while(cc.hasNextEvent()) {
-
-            XMLEvent e = cc.nextEvent();
-
-            //Location loc = e.getLocation();
-            
-            if(e.isAttribute()) {
-                //System.out.println("Adding " + e);
-                
-                // attributes added during tag processing and under the same tag
-                // get handled here, outcome is always PROCESS_ALL
-                
-                Attribute a = (Attribute) e;
-                if(h.isAttributeHandled(a.getName())) {
-                    h.processAttribute(cc, a);
-                } else {
-                    String value = a.getValue();
-                    String nvalue = processText(cc, value);
-                    if(nvalue != null) {
-                        a = cc.getElementFactory().createAttribute(a.getName(), nvalue);
-                    }
-                    //System.out.println("Adding " + e);
-                    cc.getWriter().add(a);
-                }                
-                
-            } else if(e.isStartElement()) {
-                
-                StartElement se = e.asStartElement();
-                
-                Processing processing = Processing.DEFAULT;
-                
-                // collect namespaces
-                @SuppressWarnings("unchecked")
-                Iterator<Namespace> nsit = se.getNamespaces();
-                List<Namespace> namespaces = new ArrayList<Namespace>();
-                
-                while(nsit.hasNext()) {
-                    Namespace ns = nsit.next();
-                    if(excludedNamespaces.contains(ns.getNamespaceURI())) {
-                        processing = Processing.REPLACE;
-                    } else {
-                        namespaces.add(ns);
-                    }
-                }
-                
-                // collect attributes
-                @SuppressWarnings("unchecked")
-                Iterator<Attribute> it = se.getAttributes();
-                List<Attribute> attributes = new LinkedList<Attribute>();
-                while(it.hasNext()) {
-                    attributes.add(it.next());
-                }
-                
-                // collect any separate attribute and namespace xml events
-                while(cc.hasNextEvent()) {
-                    if(cc.peekEvent().isNamespace()) {
-                        namespaces.add((Namespace)cc.nextEvent());
-                        processing = Processing.REPLACE;
-                    } else if(cc.peekEvent().isAttribute()) {
-                        attributes.add((Attribute)cc.nextEvent());
-                        processing = Processing.REPLACE;
-                    } else {
-                        break;
-                    }
-                }
-                
-                // preprocess attributes
-                it = attributes.iterator();
-                attributes = new ArrayList<Attribute>();
-                
-                while(it.hasNext() && processing != Processing.SKIP) {
-                    Attribute a = it.next();
-                    
-                    if(h.isAttributeHandled(a.getName())) {
-                        processing = Processing.REPLACE;
-
-                        AttributeHandler.Outcome o = h.processAttribute(cc, a);
-                        if(o == Outcome.PROCESS_NONE) {
-                            processing = Processing.SKIP;
-                        }
-                        
-                    } else {
-                        String value = a.getValue();
-                        String nvalue = processText(cc, value);
-                        if(nvalue != null) {
-                            a = cc.getElementFactory().createAttribute(a.getName(), nvalue);
-                            processing = Processing.REPLACE;
-                        }
-                        
-                        attributes.add(a);
-                    }
-                }
-
-                if(processing == Processing.SKIP) {
-                    
-                    skipChildren(cc, false);
-                    
-                } else {
-                
-                    if(processing == Processing.REPLACE) {
-                        // replace element with new one
-                        se = cc.getElementFactory()
-                                .createStartElement(
-                                        se.getName(), 
-                                        attributes.iterator(), 
-                                        namespaces.iterator());
-                    }
-                    
-                    // handle start element
-                    if(h.isElementHandled(se.getName())) {
-                        ElementHandler.Outcome o = h.processStartElement(cc, se);
-                        cc.flushEventQueue();
-                        switch(o){ 
-                        case PROCESS_SIBLINGS:
-                            skipChildren(cc, true);
-                            break;
-                        }
-                    } else {
-                        //System.out.println("Adding " + se);
-                        cc.getWriter().add(se);
-                        cc.flushEventQueue(); // flush events added by any attribute handlers
-                    }
-                }
-                
-            } else if(e.isEndElement()) {
-                
-                // handle end element
-                if(h.isElementHandled(e.asEndElement().getName())) {
-                    h.processEndElement(cc, e.asEndElement());
-                    cc.flushEventQueue();
-                } else {
-                    //System.out.println("Adding " + e);
-                    cc.getWriter().add(e);
-                }
-                
-            } else if(e.isCharacters()) {
-                
-                // process text
-                Characters ce = e.asCharacters();
-                String s = ce.getData();
-                String ns = processText(cc, s);
-                if(ns != null) {
-                    ce = cc.getElementFactory().createCharacters(ns);
-                }
-                //System.out.println("Adding " + e);
-                cc.getWriter().add(ce);
-                
-            }
-            
-        }
-        
-    }
-    
-    private String processText(CompileContext cc, String data) {
-        String val = cc.parseTemplateExpression(data, String.class);
-        if(val == null) val = "";
-        if(val.equals(data))
-            return null;
-        
-        return val;
-    }
-    
-    // skip all elements until current tag's end is encountered
-    private static void skipChildren(CompileContext cc, boolean processEnd) throws XMLStreamException {
-        skipElements(cc, 1, processEnd);
-    }
-
-    // skip elements until level reaches 0
-    private static void skipElements(CompileContext cc, int initialLevel, boolean processEnd) throws XMLStreamException {
-        
-        while(cc.hasNextEvent()) {
-            XMLEvent e = cc.peekEvent();
-            
-            if(e.isStartElement()) {
-                initialLevel++;
-            } else if(e.isEndElement()) {
-                initialLevel--;
-            }
-            
-            if(initialLevel == 0) {
-                // do not remove the event if we need to process it later
-                if(!processEnd) cc.nextEvent();
-                break;
-            }
-            cc.nextEvent();
-            
-        }
-        
-    }
-    
-    private enum Processing {
-        SKIP,
-        REPLACE,
-        DEFAULT;
-    }
-    
-}
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.code.activetemplates.impl;
+
+import java.io.OutputStream;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.Characters;
+import javax.xml.stream.events.Namespace;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import javax.xml.transform.stream.StreamResult;
+
+import org.codehaus.stax2.XMLOutputFactory2;
+import org.springframework.context.MessageSource;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.TypeConverter;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import com.google.code.activetemplates.LocalizedTemplate;
+import com.google.code.activetemplates.Template;
+import com.google.code.activetemplates.TemplateCompileException;
+import com.google.code.activetemplates.TemplateCompiler;
+import com.google.code.activetemplates.TemplateModel;
+import com.google.code.activetemplates.events.AttributeHandler;
+import com.google.code.activetemplates.events.ElementHandler;
+import com.google.code.activetemplates.events.AttributeHandler.Outcome;
+import com.google.code.activetemplates.spi.ExpressionEngine;
+import com.google.code.activetemplates.spi.HandlerSPI;
+import com.google.code.activetemplates.spi.Providers;
+import com.google.code.activetemplates.xml.CharSink;
+import com.google.code.activetemplates.xml.EventWriterSink;
+import com.google.code.activetemplates.xml.StreamWriterSink;
+import com.google.code.activetemplates.xml.Utf8Sink;
+import com.google.code.activetemplates.xml.XmlResult;
+import com.google.code.activetemplates.xml.XmlSink;
+import com.google.code.activetemplates.xml.XmlSinkType;
+import com.google.code.activetemplates.xml.XmlStreamResult;
+
+public class TemplateCompilerImpl implements TemplateCompiler {
+    
+    public static final int DEFAULT_MAX_LOCALES = 16;
+    
+    private XMLOutputFactory outFactory;
+    private XMLInputFactory inFactory;
+    private XMLEventFactory eFactory;
+    private EventLoader eventLoader;
+    private EventComponentFactory eComponentFactory;
+    
+    private Set<String> excludedNamespaces;
+    private ExpressionCache expressionCache;
+
+    private Handlers h;
+    
+    private ConcurrentMap<String, TemplateProgram> programs;
+    private ConcurrentMap<String, RenderPlan> plans;
+    private Set<String> compiledTemplates;
+    private PureExpressions pureExpressions;
+    private PureExpressions constantExpressions;
+    private boolean constantFolding;
+    
+    // locales which programs with messages are specialized for, 
+    // and number of slots taken by them
+    private final Set<Locale> localizedLocales = Collections.newSetFromMap(new ConcurrentHashMap<Locale, Boolean>());
+    private final AtomicInteger localeSlots = new AtomicInteger();
+    private int maxLocales;
+    
+    private XmlSinkType sinkType;
+    private Map<String, XmlSinkType> templateSinkTypes;
+    
+    // contexts which no render is using. they are held by the compiler rather
+    // than by threads, so pooled container threads do not keep them, or 
+    // classes they reference, alive after the compiler is gone
+    private final Queue<CompileContext> contexts = new ConcurrentLinkedQueue<CompileContext>();
+    
+    private final LocalVariables locals = new LocalVariables();
+    
+    // interprets parts of compiled plans, which handlers could not compile
+    private final RenderPlan.Interpreter interpreter = new RenderPlan.Interpreter() {
+        public void interpret(CompileContext cc) throws XMLStreamException {
+            doCompile(cc);
+        }
+    };
+    private Map<String, Method> functions;
+    private Map<String, Object> globals;
+    private MessageSource messageSource;
+    private TypeConverter typeConverter;
+    private volatile EvaluationContext baseContext;
+    
+    public TemplateCompilerImpl(){
+
+        outFactory = XMLOutputFactory.newInstance();
+        outFactory.setProperty(XMLOutputFactory2.IS_REPAIRING_NAMESPACES, true);
+        inFactory = XMLInputFactory.newInstance();
+        eFactory = XMLEventFactory.newInstance();
+        eventLoader = new EventLoader(inFactory, eFactory);
+        
+        h = new Handlers();
+        
+        excludedNamespaces = new HashSet<String>();
+        List<HandlerSPI> spis = Providers.getHandlerSPIs();
+        
+        for(HandlerSPI spi: spis) {
+            Set<String> s = spi.getExcludedNamespaces();
+            if(s != null) {
+                excludedNamespaces.addAll(s);
+            }
+        }
+        
+        eComponentFactory = new EventComponentFactory(eventLoader, h.getElementHandlers());
+        expressionCache = new ExpressionCache(new PathExpressionEngine());
+        programs = new ConcurrentHashMap<String, TemplateProgram>();
+        plans = new ConcurrentHashMap<String, RenderPlan>();
+        compiledTemplates = Collections.emptySet();
+        sinkType = XmlSinkType.EVENT_WRITER;
+        templateSinkTypes = Collections.emptyMap();
+        functions = Collections.emptyMap();
+        globals = Collections.emptyMap();
+        baseContext = createBaseContext();
+        constantExpressions = new PureExpressions(Collections.<String>emptySet(), globals.keySet(), ExpressionCache.DEFAULT_MAX_SIZE);
+        constantFolding = true;
+        maxLocales = DEFAULT_MAX_LOCALES;
+    }
+    
+    /**
+     * Returns cache of parsed expressions shared by all compiles
+     * 
+     * @return
+     */
+    public ExpressionCache getExpressionCache() {
+        return expressionCache;
+    }
+    
+    /**
+     * Sets maximum number of parsed expressions to cache. 
+     * Replaces current cache with an empty one.
+     * 
+     * @param size
+     */
+    public void setExpressionCacheSize(int size) {
+        expressionCache = new ExpressionCache(expressionCache.getEngine(), size);
+    }
+    
+    /**
+     * Returns engine which parses expressions of all templates
+     * 
+     * @return
+     */
+    public ExpressionEngine getExpressionEngine() {
+        return expressionCache.getEngine();
+    }
+    
+    /**
+     * Sets engine which parses expressions of all templates. Default engine
+     * compiles common expressions and leaves the rest to SpEL. 
+     * Replaces current expression cache with an empty one.
+     * 
+     * @param engine
+     */
+    public void setExpressionEngine(ExpressionEngine engine) {
+        expressionCache = new ExpressionCache(engine, expressionCache.getMaxSize());
+    }
+    
+    public boolean isConstantFolding() {
+        return constantFolding;
+    }
+    
+    /**
+     * Sets whether constant expressions and branches are folded when 
+     * templates are loaded, enabled by default. Applies to templates 
+     * loaded afterwards.
+     * 
+     * @param constantFolding
+     */
+    public void setConstantFolding(boolean constantFolding) {
+        this.constantFolding = constantFolding;
+    }
+    
+    /**
+     * Returns names of model entries which are declared pure
+     * 
+     * @return
+     */
+    public Set<String> getPureModelEntries() {
+        return pureExpressions == null ? Collections.<String>emptySet() : pureExpressions.getEntries();
+    }
+    
+    /**
+     * Sets names of model entries which do not change while a template 
+     * renders, e.g. current user or shopping cart. Results of expressions 
+     * which read nothing but properties of these entries are memoized 
+     * and reused within a render. Memoized results are never shared 
+     * between renders.
+     * 
+     * @param entries
+     */
+    public void setPureModelEntries(Set<String> entries) {
+        pureExpressions = entries == null || entries.isEmpty() 
+                ? null 
+                : new PureExpressions(entries, Collections.<String>emptySet(), expressionCache.getMaxSize());
+    }
+    
+    /**
+     * Returns names of templates which are rendered through compiled plans
+     * 
+     * @return
+     */
+    public Set<String> getCompiledTemplates() {
+        return compiledTemplates;
+    }
+    
+    /**
+     * Sets names of templates which should be rendered through compiled plans
+     * rather than event interpreter. Besides builtin control elements (each,
+     * if, else, conditional, container, nobr, message) and if attribute, 
+     * plans compile elements and attributes of handlers implementing
+     * CompilableElementHandler or CompilableAttributeHandler. Elements of 
+     * other handlers are interpreted within compiled plans, one subtree at
+     * a time.
+     * 
+     * @param compiledTemplates
+     */
+    public void setCompiledTemplates(Set<String> compiledTemplates) {
+        this.compiledTemplates = compiledTemplates == null 
+                ? Collections.<String>emptySet()
+                : Collections.unmodifiableSet(new HashSet<String>(compiledTemplates));
+    }
+    
+    
+
+    /**
+     * Returns kind of sink used for output streams and writers
+     * 
+     * @return
+     */
+    public XmlSinkType getSinkType() {
+        return sinkType;
+    }
+    
+    /**
+     * Sets kind of sink used for output streams and writers, 
+     * unless set for a particular template. Default is StAX event writer,
+     * direct serialization has to be enabled explicitly.
+     * 
+     * @param sinkType
+     */
+    public void setSinkType(XmlSinkType sinkType) {
+        this.sinkType = sinkType;
+    }
+    
+    /**
+     * Returns kinds of sinks used for particular templates
+     * 
+     * @return
+     */
+    public Map<String, XmlSinkType> getTemplateSinkTypes() {
+        return templateSinkTypes;
+    }
+    
+    /**
+     * Sets kinds of sinks used for output streams and writers 
+     * of particular templates, by template name
+     * 
+     * @param templateSinkTypes
+     */
+    public void setTemplateSinkTypes(Map<String, XmlSinkType> templateSinkTypes) {
+        this.templateSinkTypes = templateSinkTypes == null
+                ? Collections.<String, XmlSinkType>emptyMap()
+                : Collections.unmodifiableMap(new HashMap<String, XmlSinkType>(templateSinkTypes));
+    }
+    
+    /**
+     * Returns constant values available to expressions of all templates
+     * 
+     * @return
+     */
+    public Map<String, Object> getGlobals() {
+        return globals;
+    }
+    
+    /**
+     * Sets values which never change between renders, e.g. feature flags,
+     * brand or build version. They are available to expressions of all 
+     * templates as #name and must not be hidden by other variables of the 
+     * same name.
+     * 
+     * When constant folding is enabled, templates are specialized against 
+     * globals as they are loaded: expressions reading nothing but globals
+     * are replaced with their values and branches they decide are pruned.
+     * Loaded templates are discarded, so that they are specialized against
+     * new values.
+     * 
+     * @param globals
+     */
+    public void setGlobals(Map<String, Object> globals) {
+        this.globals = globals == null
+                ? Collections.<String, Object>emptyMap()
+                : Collections.unmodifiableMap(new HashMap<String, Object>(globals));
+        constantExpressions = new PureExpressions(Collections.<String>emptySet(), this.globals.keySet(), 
+                expressionCache.getMaxSize());
+        baseContext = createBaseContext();
+        clearPrograms();
+    }
+    
+    public MessageSource getMessageSource() {
+        return messageSource;
+    }
+    
+    /**
+     * Sets source of messages written by at:message elements. 
+     * Localized templates with messages resolve them in their locale when
+     * they are loaded, for at most maxLocales locales. Other templates 
+     * resolve messages on every render, in locale of the template or 
+     * default locale.
+     * Loaded templates are discarded, so that messages are resolved again.
+     * 
+     * @param messageSource
+     */
+    public void setMessageSource(MessageSource messageSource) {
+        this.messageSource = messageSource;
+        clearPrograms();
+    }
+    
+    public int getMaxLocales() {
+        return maxLocales;
+    }
+    
+    /**
+     * Sets number of locales, which templates with messages are specialized
+     * for when they are loaded. Templates rendered in other locales resolve
+     * their messages on every render. Locales usually come from clients,
+     * so their number is limited to keep loaded templates bounded.
+     * 
+     * @param maxLocales
+     */
+    public void setMaxLocales(int maxLocales) {
+        this.maxLocales = maxLocales;
+    }
+    
+    private void clearPrograms() {
+        programs.clear();
+        plans.clear();
+        localizedLocales.clear();
+        localeSlots.set(0);
+    }
+    
+    /**
+     * Returns functions available to expressions of all templates
+     * 
+     * @return
+     */
+    public Map<String, Method> getFunctions() {
+        return functions;
+    }
+    
+    /**
+     * Sets static methods, which are available to expressions of all
+     * templates as #name(...)
+     * 
+     * @param functions
+     */
+    public void setFunctions(Map<String, Method> functions) {
+        this.functions = functions == null
+                ? Collections.<String, Method>emptyMap()
+                : Collections.unmodifiableMap(new HashMap<String, Method>(functions));
+        baseContext = createBaseContext();
+    }
+    
+    /**
+     * Returns type converter used by expressions, or null if default one is used
+     * 
+     * @return
+     */
+    public TypeConverter getTypeConverter() {
+        return typeConverter;
+    }
+    
+    /**
+     * Sets type converter used by expressions of all templates
+     * 
+     * @param typeConverter - converter or null to use default one
+     */
+    public void setTypeConverter(TypeConverter typeConverter) {
+        this.typeConverter = typeConverter;
+        baseContext = createBaseContext();
+    }
+    
+    // evaluation context shared by all renders. it is fully initialized here
+    // and only read afterwards, so resolvers and accessors stay warm between
+    // renders. reflective accessors keep their caches in concurrent maps
+    private EvaluationContext createBaseContext() {
+        StandardEvaluationContext c = new StandardEvaluationContext();
+        c.addPropertyAccessor(new TemplateModelPropertyAccessor());
+        // cached bean getters are tried before default reflective accessor
+        c.getPropertyAccessors().add(0, new BeanPropertyAccessor());
+        if(typeConverter != null) {
+            c.setTypeConverter(typeConverter);
+        }
+        for(Map.Entry<String, Method> f: functions.entrySet()) {
+            c.registerFunction(f.getKey(), f.getValue());
+        }
+        for(Map.Entry<String, Object> g: globals.entrySet()) {
+            c.setVariable(g.getKey(), g.getValue());
+        }
+        
+        // defaults are created lazily, create them before sharing
+        c.getConstructorResolvers();
+        c.getMethodResolvers();
+        c.getPropertyAccessors();
+        c.getTypeLocator();
+        c.getTypeConverter();
+        return c;
+    }
+    
+    private XmlSinkType getSinkType(Template t) {
+        XmlSinkType type = templateSinkTypes.get(t.getName());
+        return type == null ? sinkType : type;
+    }
+
+    @Override
+    public void compile(Template t, TemplateModel model, OutputStream out) throws TemplateCompileException {
+        XmlSink sink;
+        switch(getSinkType(t)) {
+        case EVENT_WRITER:
+            sink = new EventWriterSink(outFactory, new XmlStreamResult(new StreamResult(out)));
+            break;
+        case STREAM_WRITER:
+            sink = new StreamWriterSink(outFactory, new XmlStreamResult(new StreamResult(out)));
+            break;
+        default:
+            sink = new Utf8Sink(out);
+        }
+        compile(t, model, sink);
+    }
+
+    @Override
+    public void compile(Template t, TemplateModel model, Writer out) throws TemplateCompileException {
+        XmlSink sink;
+        switch(getSinkType(t)) {
+        case EVENT_WRITER:
+            sink = new EventWriterSink(outFactory, new XmlStreamResult(new StreamResult(out)));
+            break;
+        case STREAM_WRITER:
+            sink = new StreamWriterSink(outFactory, new XmlStreamResult(new StreamResult(out)));
+            break;
+        default:
+            sink = new CharSink(out);
+        }
+        compile(t, model, sink);
+    }
+
+    @Override
+    public void compile(final Template t, final TemplateModel model, XmlResult out) throws TemplateCompileException {
+        compile(t, model, new EventWriterSink(outFactory, out));
+    }
+    
+    @Override
+    public void compile(Template t, TemplateModel model, XmlSink out) throws TemplateCompileException {
+        XMLEventWriter w;
+        try {
+            w = out.createWriter();
+        } catch(XMLStreamException e) {
+            throw new TemplateCompileException(e);
+        }
+        
+        try {
+            Locale locale = null;
+            Template source = t;
+            if(t instanceof LocalizedTemplate) {
+                locale = ((LocalizedTemplate) t).getLocale();
+                source = ((LocalizedTemplate) t).getTemplate();
+            }
+            
+            TemplateProgram p = getProgram(source, null);
+            Locale variant = getVariant(p, locale);
+            if(variant != null) {
+                p = getProgram(source, variant);
+            }
+            RenderPlan plan = getPlan(source.getName(), variant, p);
+            
+            CompileContext ctx = getContext();
+            ctx.begin(p, w, expressionCache, baseContext, model, pureExpressions, messageSource, 
+                    locale == null ? Locale.getDefault() : locale);
+            try {
+                if(plan != null) {
+                    plan.render(ctx);
+                } else {
+                    doCompile(ctx);
+                }
+            } finally {
+                ctx.end();
+                contexts.offer(ctx);
+            }
+            
+        } catch(XMLStreamException e) {
+            throw new TemplateCompileException(e);
+        } finally {
+            try{ w.close(); } catch(XMLStreamException e){}
+        }
+    }
+    
+    // returns an unused compile context. contexts are reused by consecutive
+    // compiles, so there are never more of them than concurrent compiles,
+    // including compiles started from within another one
+    private CompileContext getContext() {
+        CompileContext ctx = contexts.poll();
+        return ctx == null ? createContext() : ctx;
+    }
+    
+    private CompileContext createContext() {
+        return new CompileContext(eFactory, eComponentFactory, new RenderEvaluationContext(locals), 
+                h.getEnvironmentKeys());
+    }
+    
+    // returns a program for the template, loading it on first use.
+    // programs are cached by template name and locale, and reloaded if a 
+    // different template instance is passed under the same name.
+    // messages of localized programs are resolved when they are loaded
+    private TemplateProgram getProgram(Template t, Locale locale) throws XMLStreamException {
+        String key = getKey(t.getName(), locale);
+        TemplateProgram p = programs.get(key);
+        if(p == null || !p.isProgramOf(t)) {
+            ConstantFolder folder = constantFolding 
+                    ? new ConstantFolder(h, eFactory, expressionCache, baseContext, constantExpressions, 
+                            messageSource, locale) 
+                    : null;
+            p = TemplateProgram.load(t, eventLoader, h, excludedNamespaces, folder);
+            programs.put(key, p);
+        }
+        return p;
+    }
+    
+    // returns locale of the program variant to render, or null if the shared
+    // program is rendered. variants only pay off for programs with messages
+    // which can be resolved at load time, and are built for a limited
+    // number of locales
+    private Locale getVariant(TemplateProgram p, Locale locale) {
+        if(locale == null || messageSource == null || !constantFolding || !p.isLocalized()) {
+            return null;
+        }
+        if(!localizedLocales.contains(locale)) {
+            // slot is taken before locale is added, so that concurrent
+            // first renders in new locales can not exceed the limit
+            if(localeSlots.incrementAndGet() > maxLocales) {
+                localeSlots.decrementAndGet();
+                return null;
+            }
+            if(!localizedLocales.add(locale)) {
+                // added by another render meanwhile
+                localeSlots.decrementAndGet();
+            }
+        }
+        return locale;
+    }
+    
+    // returns compiled plan for the template or null, if template
+    // should be interpreted
+    private RenderPlan getPlan(String name, Locale locale, TemplateProgram p) {
+        if(!compiledTemplates.contains(name)) {
+            return null;
+        }
+        String key = getKey(name, locale);
+        RenderPlan plan = plans.get(key);
+        if(plan == null || !plan.isPlanOf(p)) {
+            plan = RenderPlan.build(p, h, excludedNamespaces, eFactory, locals, interpreter);
+            plans.put(key, plan);
+        }
+        return plan.isCompiled() ? plan : null;
+    }
+    
+    private static String getKey(String name, Locale locale) {
+        return locale == null ? name : name + '@' + locale;
+    }
+    
+    private void doCompile(CompileContext cc) throws XMLStreamException {
+        
+        while(cc.hasNextEvent()) {
+            
+            if(cc.writeSegment()) {
+                continue;
+            }
+
+            XMLEvent e = cc.nextEvent();
+            int index = cc.getLastIndex();
+
+            //Location loc = e.getLocation();
+            
+            if(e instanceof ActionInstruction) {
+                
+                // queued action, executed in place
+                h.executeAction(cc, (ActionInstruction) e);
+                cc.flushEventQueue();
+                
+            } else if(e.isAttribute()) {
+                //System.out.println("Adding " + e);
+                
+                // attributes added during tag processing and under the same tag
+                // get handled here, outcome is always PROCESS_ALL
+                
+                Attribute a = (Attribute) e;
+                int id = index >= 0 ? cc.getProgram().getHandler(index) : h.getAttributeId(a.getName());
+                if(id >= 0) {
+                    h.processAttribute(cc, id, a);
+                } else {
+                    if(isTemplated(cc, index, a.getValue())) {
+                        String value = a.getValue();
+                        String nvalue = processText(cc, value);
+                        if(nvalue != null) {
+                            a = cc.getElementFactory().createAttribute(a.getName(), nvalue);
+                        }
+                    }
+                    //System.out.println("Adding " + e);
+                    cc.getWriter().add(a);
+                }                
+                
+            } else if(e.isStartElement()) {
+                
+                StartElement se = e.asStartElement();
+                
+                Processing processing = Processing.DEFAULT;
+                
+                List<Namespace> namespaces = cc.getElementNamespaces();
+                List<Attribute> attributes = cc.getElementAttributes();
+                boolean literalAttributes = false;
+                
+                if(index >= 0) {
+                    
+                    // program elements were bound and classified at load time
+                    TemplateProgram p = cc.getProgram();
+                    Namespace[] nss = p.getNamespaces(index);
+                    if(nss != null) {
+                        for(Namespace ns: nss) {
+                            namespaces.add(ns);
+                        }
+                    }
+                    if(p.isExcluding(index)) {
+                        processing = Processing.REPLACE;
+                    }
+                    
+                    for(Attribute a: p.getAttributes(index)) {
+                        attributes.add(a);
+                    }
+                    literalAttributes = !p.isTemplated(index);
+                    
+                } else {
+                    
+                    // collect namespaces
+                    @SuppressWarnings("unchecked")
+                    Iterator<Namespace> nsit = se.getNamespaces();
+                    while(nsit.hasNext()) {
+                        Namespace ns = nsit.next();
+                        if(excludedNamespaces.contains(ns.getNamespaceURI())) {
+                            processing = Processing.REPLACE;
+                        } else {
+                            namespaces.add(ns);
+                        }
+                    }
+                    
+                    // collect attributes
+                    @SuppressWarnings("unchecked")
+                    Iterator<Attribute> it = se.getAttributes();
+                    while(it.hasNext()) {
+                        attributes.add(it.next());
+                    }
+                }
+                int elementAttributes = attributes.size();
+                
+                // collect any separate attribute and namespace xml events
+                while(cc.hasNextEvent()) {
+                    if(cc.peekEvent().isNamespace()) {
+                        namespaces.add((Namespace)cc.nextEvent());
+                        processing = Processing.REPLACE;
+                    } else if(cc.peekEvent().isAttribute()) {
+                        attributes.add((Attribute)cc.nextEvent());
+                        processing = Processing.REPLACE;
+                    } else {
+                        break;
+                    }
+                }
+                
+                // preprocess attributes
+                List<Attribute> outputAttributes = cc.getOutputAttributes();
+                
+                for(int k = 0; k < attributes.size() && processing != Processing.SKIP; k++) {
+                    Attribute a = attributes.get(k);
+                    boolean bound = index >= 0 && k < elementAttributes;
+                    int id = bound ? cc.getProgram().getAttributeHandler(index, k) : h.getAttributeId(a.getName());
+                    
+                    if(id >= 0) {
+                        processing = Processing.REPLACE;
+
+                        AttributeHandler.Outcome o = h.processAttribute(cc, id, a);
+                        if(o == Outcome.PROCESS_NONE) {
+                            processing = Processing.SKIP;
+                        }
+                        
+                    } else {
+                        boolean literal = (k < elementAttributes && literalAttributes)
+                                || !TemplateProgram.isTemplate(a.getValue());
+                        if(!literal) {
+                            String value = a.getValue();
+                            String nvalue = processText(cc, value);
+                            if(nvalue != null) {
+                                a = cc.getElementFactory().createAttribute(a.getName(), nvalue);
+                                processing = Processing.REPLACE;
+                            }
+                        }
+                        
+                        outputAttributes.add(a);
+                    }
+                }
+
+                if(processing == Processing.SKIP) {
+                    
+                    skipChildren(cc, index, false);
+                    
+                } else {
+                
+                    if(processing == Processing.REPLACE) {
+                        // replace element with new one
+                        se = cc.getElementFactory()
+                                .createStartElement(
+                                        se.getName(), 
+                                        outputAttributes.iterator(), 
+                                        namespaces.iterator());
+                    }
+                    
+                    // handle start element
+                    int id = index >= 0 ? cc.getProgram().getHandler(index) : h.getElementId(se.getName());
+                    if(id >= 0) {
+                        ElementHandler.Outcome o = h.processStartElement(cc, id, se);
+                        cc.flushEventQueue();
+                        switch(o){ 
+                        case PROCESS_SIBLINGS:
+                            skipChildren(cc, index, true);
+                            break;
+                        }
+                    } else {
+                        //System.out.println("Adding " + se);
+                        cc.getWriter().add(se);
+                        cc.flushEventQueue(); // flush events added by any attribute handlers
+                    }
+                }
+                
+            } else if(e.isEndElement()) {
+                
+                // handle end element
+                int id = index >= 0 ? cc.getProgram().getHandler(index) : h.getElementId(e.asEndElement().getName());
+                if(id >= 0) {
+                    h.processEndElement(cc, id, e.asEndElement());
+                    cc.flushEventQueue();
+                } else {
+                    //System.out.println("Adding " + e);
+                    cc.getWriter().add(e);
+                }
+                
+            } else if(e.isCharacters()) {
+                
+                // process text, literal text is written as is
+                Characters ce = e.asCharacters();
+                String s = ce.getData();
+                if(isTemplated(cc, index, s)) {
+                    String ns = processText(cc, s);
+                    if(ns != null) {
+                        ce = cc.getElementFactory().createCharacters(ns);
+                    }
+                }
+                //System.out.println("Adding " + e);
+                cc.getWriter().add(ce);
+                
+            }
+            
+        }
+        
+    }
+    
+    // whether text needs evaluation, using load time classification for program events
+    private static boolean isTemplated(CompileContext cc, int index, String data) {
+        return index >= 0 ? cc.getProgram().isTemplated(index) : TemplateProgram.isTemplate(data);
+    }
+    
+    static String processText(CompileContext cc, String data) {
+        String val = cc.parseTemplateExpression(data, String.class);
+        if(val == null) val = "";
+        if(val.equals(data))
+            return null;
+        
+        return val;
+    }
+    
+    // skip all elements until current tag's end is encountered
+    private static void skipChildren(CompileContext cc, int startIndex, boolean processEnd) throws XMLStreamException {
+        if(!cc.skipElement(startIndex, processEnd)) {
+            skipElements(cc, 1, processEnd);
+        }
+    }
+
+    // skip elements until level reaches 0
+    private static void skipElements(CompileContext cc, int initialLevel, boolean processEnd) throws XMLStreamException {
+        
+        while(cc.hasNextEvent()) {
+            XMLEvent e = cc.peekEvent();
+            
+            if(e.isStartElement()) {
+                initialLevel++;
+            } else if(e.isEndElement()) {
+                initialLevel--;
+            }
+            
+            if(initialLevel == 0) {
+                // do not remove the event if we need to process it later
+                if(!processEnd) cc.nextEvent();
+                break;
+            }
+            cc.nextEvent();
+            
+        }
+        
+    }
+    
+    private enum Processing {
+        SKIP,
+        REPLACE,
+        DEFAULT;
+    }
+    
+}
@@ -1,122 +1,158 @@
-/*
- * Copyright 2009 Anton Tanasenko
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *    http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-
-package com.google.code.activetemplates.impl;
-
-import javax.xml.stream.XMLEventFactory;
-import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.XMLEvent;
-import com.google.code.activetemplates.EventStream;
-import com.google.code.activetemplates.events.Action;
-import com.google.code.activetemplates.events.EventComponent;
-import com.google.code.activetemplates.events.EventEnvironment;
-import com.google.code.activetemplates.events.TemplateEvent;
-
-abstract class TemplateEventImpl implements TemplateEvent, EventStream {
-
-    private CompileContext cc;
-    private XMLEvent e;
-    private EventComponent ec;
-
-    void init(CompileContext cc, XMLEvent e, EventComponent ec) {
-        this.cc = cc;
-        this.e = e;
-        this.ec = ec;
-    }
-
-    public void dispose() {
-        cc = null;
-        e = null;
-    }
-    
-    public <T> T parseExpression(String expression, Class<T> clazz) {
-        return cc.parseExpression(expression, clazz);
-    }
-    
-    public <T> T parseTemplateExpression(String expression, Class<T> clazz) {
-        return cc.parseTemplateExpression(expression, clazz);
-    }
-    
-    public <T> T parseExpression(String expression, Object rootObject, Class<T> clazz) {
-        return cc.parseExpression(expression, rootObject, clazz);
-    }
-
-    public void setExpressionValue(String expression, Object value) {
-        cc.setExpressionValue(expression, value);
-    }
-
-    public XMLEvent getEvent(){
-        return e;
-    }
-
-    public XMLEventFactory getEventFactory() {
-        return cc.getElementFactory();
-    }
-
-    public boolean hasNextEvent() {
-        return cc.hasNextEvent();
-    }
-
-    public XMLEvent nextEvent() throws XMLStreamException {
-        return cc.nextEvent();
-    }
-
-    public XMLEvent peekEvent() throws XMLStreamException {
-        return cc.peekEvent();
-    }
-
-    public void queueEvent(XMLEvent e) {
-        cc.queueEvent(e);
-    }
-
-    public void queueAction(Action a) {
-
-        String aid = registerAction(a);
-
-        cc.queueEvent(com.google.code.activetemplates.lib.elements.ActionEl
-                .createActionStartEvent(cc.getElementFactory(), aid));
-        cc.queueEvent(com.google.code.activetemplates.lib.elements.ActionEl
-                .createActionEndEvent(cc.getElementFactory()));
-    }
-    
-    public String registerAction(Action a) {
-        return cc.getActionRegistry().registerAction(a);
-    }
-
-    public void executeAction(String aid) {
-        Action a = cc.getActionRegistry().removeAction(aid);
-
-        if (a == null)
-            throw new IllegalStateException("No such action: " + aid);
-
-        a.execute(this);
-    }
-
-    @Override
-    public EventStream getEventStream() {
-        return this;
-    }
-
-    @Override
-    public EventEnvironment getEnvironment(){
-        return cc.getEventEnvironment();
-    }
-
-    public EventComponent getEventComponent() {
-        return ec;
-    }
-    
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.code.activetemplates.impl;
+
+import java.util.Locale;
+
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.XMLEvent;
+import com.google.code.activetemplates.EventStream;
+import com.google.code.activetemplates.events.Action;
+import com.google.code.activetemplates.events.EventBody;
+import com.google.code.activetemplates.events.EventComponent;
+import com.google.code.activetemplates.events.EventEnvironment;
+import com.google.code.activetemplates.events.TemplateEvent;
+import com.google.code.activetemplates.util.TemplateUtils;
+
+abstract class TemplateEventImpl implements TemplateEvent, EventStream {
+
+    private CompileContext cc;
+    private XMLEvent e;
+    private EventComponent ec;
+
+    void init(CompileContext cc, XMLEvent e, EventComponent ec) {
+        this.cc = cc;
+        this.e = e;
+        this.ec = ec;
+    }
+
+    public void dispose() {
+        cc = null;
+        e = null;
+        ec = null;
+    }
+    
+    boolean isInUse() {
+        return cc != null;
+    }
+    
+    public <T> T parseExpression(String expression, Class<T> clazz) {
+        return cc.parseExpression(expression, clazz);
+    }
+    
+    public <T> T parseTemplateExpression(String expression, Class<T> clazz) {
+        return cc.parseTemplateExpression(expression, clazz);
+    }
+    
+    public <T> T parseExpression(String expression, Object rootObject, Class<T> clazz) {
+        return cc.parseExpression(expression, rootObject, clazz);
+    }
+
+    public void setExpressionValue(String expression, Object value) {
+        cc.setExpressionValue(expression, value);
+    }
+
+    public int getVariableSlot(String variable) {
+        return cc.getVariableSlot(variable);
+    }
+    
+    public Object setVariable(int slot, Object value) {
+        return cc.setVariable(slot, value);
+    }
+
+    public Locale getLocale() {
+        return cc.getLocale();
+    }
+    
+    public String getMessage(String code, Object[] args, String defaultMessage) {
+        return cc.getMessage(code, args, defaultMessage);
+    }
+
+    public XMLEvent getEvent(){
+        return e;
+    }
+
+    public XMLEventFactory getEventFactory() {
+        return cc.getElementFactory();
+    }
+
+    public boolean hasNextEvent() {
+        return cc.hasNextEvent();
+    }
+
+    public XMLEvent nextEvent() throws XMLStreamException {
+        return cc.nextEvent();
+    }
+
+    public XMLEvent peekEvent() throws XMLStreamException {
+        return cc.peekEvent();
+    }
+
+    public void queueEvent(XMLEvent e) {
+        cc.queueEvent(e);
+    }
+    
+    public void writeEvent(XMLEvent e) throws XMLStreamException {
+        cc.write(e);
+    }
+
+    public EventBody readBody() throws XMLStreamException {
+        EventBody body = e.isStartElement() ? cc.readBody(e.asStartElement()) : null;
+        if(body == null) {
+            body = new EventBodyImpl(TemplateUtils.readChildren(this, false));
+        }
+        return body;
+    }
+
+    public void queueBody(EventBody body) {
+        cc.queueBody(body);
+    }
+
+    public void queueAction(Action a) {
+
+        cc.queueEvent(new ActionInstruction(a));
+    }
+    
+    public String registerAction(Action a) {
+        return cc.getActionRegistry().registerAction(a);
+    }
+
+    public void executeAction(String aid) {
+        Action a = cc.getActionRegistry().removeAction(aid);
+
+        if (a == null)
+            throw new IllegalStateException("No such action: " + aid);
+
+        a.execute(this);
+    }
+
+    @Override
+    public EventStream getEventStream() {
+        return this;
+    }
+
+    @Override
+    public EventEnvironment getEnvironment(){
+        return cc.getEventEnvironment();
+    }
+
+    public EventComponent getEventComponent() {
+        return ec;
+    }
+    
 }
\ No newline at end of file
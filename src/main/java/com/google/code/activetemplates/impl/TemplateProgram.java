@@ -0,0 +1,497 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.code.activetemplates.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.Namespace;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+import com.google.code.activetemplates.Template;
+import com.google.code.activetemplates.lib.elements.MessageEl;
+import com.google.code.activetemplates.xml.SerializingEventWriter;
+import com.google.code.activetemplates.xml.XmlSource;
+
+/**
+ * Immutable, pre-parsed form of a template document.
+ *
+ * Template source is read once through a cursor reader and lowered into an 
+ * array of xml events which render loop walks by index, so no xml parsing 
+ * happens per compile. Constant expressions and branches of loaded events
+ * may be folded before the program is built.
+ * Only events that can contribute to the output are created: start and end
+ * elements and text. Adjacent text events are merged into one.
+ * 
+ * Text and attribute values are classified as literal or templated at load
+ * time, so literal content can be written without expression evaluation.
+ * Element and attribute handlers are resolved to handler ids, and namespace
+ * declarations are filtered against excluded namespaces, at load time too.
+ * Runs of static events, that are neither handled nor templated, are 
+ * additionally pre-encoded into segments for direct output. Namespaces 
+ * written elements bind are tracked at load time, so that segments are
+ * encoded for namespaces in scope where they are written.
+ *
+ * Programs are shared between threads and must not be modified once loaded.
+ *
+ * @author sleepless
+ */
+class TemplateProgram {
+
+    private final Template template;
+    private final XMLEvent[] events;
+    private final int[] ends;
+    private final boolean[] templated;
+    private final int[] handlers;
+    private final Attribute[][] attributes;
+    private final int[][] attributeHandlers;
+    private final Namespace[][] namespaces;
+    private final boolean[] excluding;
+    private final Scope[] scopes;
+    private final SerializingEventWriter.Segment[] segments;
+    private boolean localized;
+
+    private TemplateProgram(Template template, XMLEvent[] events, Handlers h, Set<String> excludedNamespaces) {
+        this.template = template;
+        this.events = events;
+        this.ends = computeEnds(events);
+        this.templated = computeTemplated(events);
+        this.handlers = new int[events.length];
+        this.attributes = new Attribute[events.length][];
+        this.attributeHandlers = new int[events.length][];
+        this.namespaces = new Namespace[events.length][];
+        this.excluding = new boolean[events.length];
+        bind(h, excludedNamespaces);
+        this.scopes = computeScopes();
+        this.segments = computeSegments();
+    }
+    
+    /**
+     * Returns true if specified text contains template expressions
+     * 
+     * @param text
+     * @return
+     */
+    public static boolean isTemplate(String text) {
+        return text.indexOf("${") >= 0;
+    }
+
+    /**
+     * Reads template source and builds a new program from it
+     *
+     * @param t
+     * @param loader
+     * @param h - handlers to bind elements and attributes to
+     * @param excludedNamespaces - namespaces which are not written to output
+     * @param folder - folds constant expressions of loaded events, or null
+     * @return
+     * @throws XMLStreamException
+     */
+    public static TemplateProgram load(Template t, EventLoader loader, Handlers h, Set<String> excludedNamespaces, 
+            ConstantFolder folder) throws XMLStreamException {
+
+        List<XMLEvent> events;
+
+        XmlSource s = t.createSource();
+        try {
+            events = loader.load(s.getSource());
+        } finally {
+            s.close();
+        }
+        
+        if(folder != null) {
+            events = folder.fold(events);
+        }
+
+        return new TemplateProgram(t, events.toArray(new XMLEvent[events.size()]), h, excludedNamespaces);
+    }
+
+    // index of the matching end element of every start element
+    static int[] computeEnds(XMLEvent[] events) {
+        int[] ends = new int[events.length];
+        Arrays.fill(ends, -1);
+
+        LinkedList<Integer> starts = new LinkedList<Integer>();
+        for(int i = 0; i < events.length; i++) {
+            if(events[i].isStartElement()) {
+                starts.push(i);
+            } else if(events[i].isEndElement() && !starts.isEmpty()) {
+                ends[starts.pop()] = i;
+            }
+        }
+        return ends;
+    }
+
+    private static boolean[] computeTemplated(XMLEvent[] events) {
+        boolean[] templated = new boolean[events.length];
+
+        for(int i = 0; i < events.length; i++) {
+            XMLEvent e = events[i];
+            if(e.isCharacters()) {
+                templated[i] = isTemplate(e.asCharacters().getData());
+            } else if(e.isAttribute()) {
+                templated[i] = isTemplate(((Attribute) e).getValue());
+            } else if(e.isStartElement()) {
+                @SuppressWarnings("unchecked")
+                Iterator<Attribute> it = e.asStartElement().getAttributes();
+                while(it.hasNext() && !templated[i]) {
+                    templated[i] = isTemplate(it.next().getValue());
+                }
+            }
+        }
+        return templated;
+    }
+    
+    // resolves handlers, attributes and output namespaces of every event
+    private void bind(Handlers h, Set<String> excludedNamespaces) {
+        List<Attribute> attrs = new ArrayList<Attribute>();
+        List<Namespace> nss = new ArrayList<Namespace>();
+        
+        for(int i = 0; i < events.length; i++) {
+            XMLEvent e = events[i];
+            handlers[i] = -1;
+            
+            if(e.isStartElement()) {
+                StartElement se = e.asStartElement();
+                handlers[i] = h.getElementId(se.getName());
+                if(handlers[i] >= 0 && h.getElementHandler(se.getName()).getClass() == MessageEl.class) {
+                    localized = true;
+                }
+                
+                attrs.clear();
+                @SuppressWarnings("unchecked")
+                Iterator<Attribute> it = se.getAttributes();
+                while(it.hasNext()) {
+                    attrs.add(it.next());
+                }
+                attributes[i] = attrs.toArray(new Attribute[attrs.size()]);
+                
+                for(int k = 0; k < attributes[i].length; k++) {
+                    int id = h.getAttributeId(attributes[i][k].getName());
+                    if(id >= 0) {
+                        if(attributeHandlers[i] == null) {
+                            attributeHandlers[i] = new int[attributes[i].length];
+                            Arrays.fill(attributeHandlers[i], -1);
+                        }
+                        attributeHandlers[i][k] = id;
+                    }
+                }
+                
+                nss.clear();
+                @SuppressWarnings("unchecked")
+                Iterator<Namespace> nit = se.getNamespaces();
+                while(nit.hasNext()) {
+                    Namespace ns = nit.next();
+                    if(excludedNamespaces.contains(ns.getNamespaceURI())) {
+                        excluding[i] = true;
+                    } else {
+                        nss.add(ns);
+                    }
+                }
+                if(!nss.isEmpty()) {
+                    namespaces[i] = nss.toArray(new Namespace[nss.size()]);
+                }
+                
+            } else if(e.isEndElement()) {
+                handlers[i] = h.getElementId(e.asEndElement().getName());
+            } else if(e.isAttribute()) {
+                handlers[i] = h.getAttributeId(((Attribute) e).getName());
+            }
+        }
+    }
+    
+    // finds runs of events which are written as is and encodes them
+    private SerializingEventWriter.Segment[] computeSegments() {
+        SerializingEventWriter.Segment[] segments = new SerializingEventWriter.Segment[events.length];
+        
+        boolean[] passive = new boolean[events.length];
+        for(int i = 0; i < events.length; i++) {
+            XMLEvent e = events[i];
+            if(e.isCharacters()) {
+                passive[i] = !templated[i];
+            } else if(e.isStartElement() && ends[i] >= 0) {
+                // end element is passive together with its start
+                passive[i] = passive[ends[i]] = isPassive(i);
+            }
+        }
+        
+        List<XMLEvent> run = new ArrayList<XMLEvent>();
+        int i = 0;
+        while(i < events.length) {
+            if(!passive[i] || events[i].isEndElement()) {
+                i++;
+                continue;
+            }
+            
+            int start = i;
+            run.clear();
+            while(i < events.length && passive[i]) {
+                run.add(events[i++]);
+            }
+            segments[start] = SerializingEventWriter.createSegment(run, scopes[start]);
+        }
+        return segments;
+    }
+    
+    // whether start element at specified index is written without any processing
+    private boolean isPassive(int index) {
+        if(templated[index] || handlers[index] >= 0 || attributeHandlers[index] != null || excluding[index]) {
+            return false;
+        }
+        return index + 1 >= events.length || !(events[index + 1].isAttribute() || events[index + 1].isNamespace());
+    }
+    
+    // namespaces in scope of every event, as bound by written elements 
+    // enclosing it. handled elements are not written and bind nothing
+    private Scope[] computeScopes() {
+        Scope[] scopes = new Scope[events.length];
+        LinkedList<Scope> outer = new LinkedList<Scope>();
+        Scope scope = Scope.EMPTY;
+        
+        for(int i = 0; i < events.length; i++) {
+            XMLEvent e = events[i];
+            if(e.isEndElement() && !outer.isEmpty()) {
+                scope = outer.pop();
+            }
+            scopes[i] = scope;
+            
+            if(e.isStartElement() && ends[i] >= 0) {
+                outer.push(scope);
+                if(handlers[i] < 0) {
+                    scope = scope.bind(e.asStartElement(), namespaces[i]);
+                }
+            }
+        }
+        return scopes;
+    }
+
+    /**
+     * Returns true if this program was built from specified template instance
+     *
+     * @param t
+     * @return
+     */
+    public boolean isProgramOf(Template t) {
+        return template == t;
+    }
+
+    /**
+     * Returns true if program contains messages, which are resolved
+     * differently for every locale
+     * 
+     * @return
+     */
+    public boolean isLocalized() {
+        return localized;
+    }
+
+    public int size() {
+        return events.length;
+    }
+
+    public XMLEvent getEvent(int index) {
+        return events[index];
+    }
+
+    /**
+     * Returns index of the end element matching start element at specified
+     * index, or -1 if event at that index is not a start element
+     *
+     * @param index
+     * @return
+     */
+    public int getEnd(int index) {
+        return ends[index];
+    }
+
+    /**
+     * Returns true if text or attribute event at specified index contains
+     * template expressions, or, for a start element, if any of its 
+     * attributes does.
+     * 
+     * @param index
+     * @return
+     */
+    public boolean isTemplated(int index) {
+        return templated[index];
+    }
+    
+    /**
+     * Returns id of the handler bound to element or attribute event at 
+     * specified index, or -1 if it is not handled
+     * 
+     * @param index
+     * @return
+     */
+    public int getHandler(int index) {
+        return handlers[index];
+    }
+    
+    /**
+     * Returns attributes of the start element at specified index
+     * 
+     * @param index
+     * @return
+     */
+    public Attribute[] getAttributes(int index) {
+        return attributes[index];
+    }
+    
+    /**
+     * Returns id of the handler bound to specified attribute of the start 
+     * element at index, or -1 if it is not handled
+     * 
+     * @param index
+     * @param attribute - attribute position, as returned by getAttributes
+     * @return
+     */
+    public int getAttributeHandler(int index, int attribute) {
+        int[] ids = attributeHandlers[index];
+        return ids == null ? -1 : ids[attribute];
+    }
+    
+    /**
+     * Returns namespaces declared by the start element at specified index,
+     * which are written to output, or null if there are none
+     * 
+     * @param index
+     * @return
+     */
+    public Namespace[] getNamespaces(int index) {
+        return namespaces[index];
+    }
+    
+    /**
+     * Returns true if start element at specified index declares any
+     * excluded namespace
+     * 
+     * @param index
+     * @return
+     */
+    public boolean isExcluding(int index) {
+        return excluding[index];
+    }
+    
+    /**
+     * Returns pre-encoded segment of static events starting at specified
+     * index, or null if there is none
+     * 
+     * @param index
+     * @return
+     */
+    public SerializingEventWriter.Segment getSegment(int index) {
+        return segments[index];
+    }
+    
+    /**
+     * Returns namespaces expected to be bound in output where event at 
+     * specified index is written
+     * 
+     * @param index
+     * @return
+     */
+    public NamespaceContext getNamespaceContext(int index) {
+        return scopes[index];
+    }
+    
+    // namespace bindings of an element, falling back to enclosing ones
+    private static class Scope implements NamespaceContext {
+        
+        static final Scope EMPTY = new Scope(null, Collections.<String, String>emptyMap());
+        
+        private final Scope parent;
+        private final Map<String, String> uris;
+        
+        private Scope(Scope parent, Map<String, String> uris) {
+            this.parent = parent;
+            this.uris = uris;
+        }
+        
+        // returns scope of specified element, which binds its own name, 
+        // qualified attributes and declared namespaces
+        Scope bind(StartElement se, Namespace[] namespaces) {
+            Map<String, String> uris = new HashMap<String, String>();
+            
+            QName name = se.getName();
+            String uri = name.getNamespaceURI() == null ? XMLConstants.NULL_NS_URI : name.getNamespaceURI();
+            uris.put(uri.length() == 0 ? XMLConstants.DEFAULT_NS_PREFIX : name.getPrefix(), uri);
+            
+            @SuppressWarnings("unchecked")
+            Iterator<Attribute> it = se.getAttributes();
+            while(it.hasNext()) {
+                QName an = it.next().getName();
+                if(an.getNamespaceURI() != null && an.getNamespaceURI().length() > 0 && an.getPrefix().length() > 0) {
+                    uris.put(an.getPrefix(), an.getNamespaceURI());
+                }
+            }
+            
+            if(namespaces != null) {
+                for(Namespace ns: namespaces) {
+                    uris.put(ns.getPrefix(), ns.getNamespaceURI());
+                }
+            }
+            
+            for(Iterator<Map.Entry<String, String>> eit = uris.entrySet().iterator(); eit.hasNext(); ) {
+                Map.Entry<String, String> en = eit.next();
+                if(en.getValue().equals(getNamespaceURI(en.getKey()))) {
+                    eit.remove();
+                }
+            }
+            return uris.isEmpty() ? this : new Scope(this, uris);
+        }
+        
+        public String getNamespaceURI(String prefix) {
+            for(Scope s = this; s != null; s = s.parent) {
+                String uri = s.uris.get(prefix);
+                if(uri != null) {
+                    return uri;
+                }
+            }
+            return XMLConstants.NULL_NS_URI;
+        }
+        
+        public String getPrefix(String namespaceURI) {
+            for(Scope s = this; s != null; s = s.parent) {
+                for(Map.Entry<String, String> en: s.uris.entrySet()) {
+                    if(en.getValue().equals(namespaceURI) && namespaceURI.equals(getNamespaceURI(en.getKey()))) {
+                        return en.getKey();
+                    }
+                }
+            }
+            return null;
+        }
+        
+        public Iterator<String> getPrefixes(String namespaceURI) {
+            String prefix = getPrefix(namespaceURI);
+            return prefix == null ? Collections.<String>emptyList().iterator() : Collections.singletonList(prefix).iterator();
+        }
+    }
+
+}
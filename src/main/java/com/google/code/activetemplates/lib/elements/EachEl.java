@@ -1,111 +1,134 @@
-/*
- * Copyright 2009 Anton Tanasenko
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *    http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-
-package com.google.code.activetemplates.lib.elements;
-
-import java.util.Queue;
-
-import javax.xml.namespace.QName;
-import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.XMLEvent;
-
-import com.google.code.activetemplates.events.ElementHandler;
-import com.google.code.activetemplates.events.EndElementEvent;
-import com.google.code.activetemplates.events.StartElementEvent;
-import com.google.code.activetemplates.events.TemplateEvent;
-import com.google.code.activetemplates.impl.handlers.BuiltinHandlerSPI;
-import com.google.code.activetemplates.util.ObjectIterator;
-import com.google.code.activetemplates.util.TemplateUtils;
-
-/**
- * Iterates over Map, Iterable, Array or a single Object passed to data
- * attribute
- * 
- * @author sleepless
- * 
- */
-public class EachEl implements ElementHandler {
-
-    public static final QName ELEMENT = new QName(
-            BuiltinHandlerSPI.NAMESPACE_STDLIB, "each");
-
-    private static final QName ATTR_DATA = new QName("data");
-    private static final QName ATTR_VALUE = new QName("value");
-    private static final QName ATTR_INDEX = new QName("index");
-    private static final QName ATTR_KEY = new QName("key");
-
-    public QName[] getElements() {
-        return new QName[]{ ELEMENT };
-    }
-
-    public Outcome processStart(StartElementEvent e) throws XMLStreamException {
-
-        // attributes
-        String dValue = TemplateUtils.getAttribute(e, ATTR_DATA);
-        String oName = TemplateUtils.getAttribute(e, ATTR_VALUE);
-        String iName = TemplateUtils.getAttribute(e, ATTR_INDEX, null);
-        String kName = TemplateUtils.getAttribute(e, ATTR_KEY, null);
-
-        // read content
-        Queue<XMLEvent> q = TemplateUtils.readChildren(e.getEventStream(), false);
-
-        // data
-        Object data = e.parseExpression(dValue, Object.class);
-        ObjectIterator oit = ObjectIterator.create(data);
-
-        e.getEventStream().queueAction(
-                new EachAction(oit, q, oName, iName, kName));
-
-        return null;
-    }
-
-    public void processEnd(EndElementEvent e) {
-    }
-
-    private static class EachAction implements
-            com.google.code.activetemplates.events.Action {
-
-        private ObjectIterator oit;
-        private Queue<XMLEvent> tree;
-        private String[] vars;
-
-        EachAction(ObjectIterator oit, Queue<XMLEvent> tree, String oName,
-                String iName, String kName) {
-            this.oit = oit;
-            this.tree = tree;
-
-            vars = new String[] { oName, iName, kName };
-        }
-
-        public void execute(TemplateEvent te) {
-
-            if (oit.next()) {
-                // setup scope
-                te.setExpressionValue(vars[0], oit.getObject());
-                if(vars[1] != null) te.setExpressionValue(vars[1], oit.getIndex());
-                if(vars[2] != null) te.setExpressionValue(vars[2], oit.getKey());
-                
-                for(XMLEvent e: tree) {
-                    te.getEventStream().queueEvent(e);
-                }
-                te.getEventStream().queueAction(this);
-            }
-
-        }
-
-    }
-
-}
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.code.activetemplates.lib.elements;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+
+import com.google.code.activetemplates.events.ElementHandler;
+import com.google.code.activetemplates.events.EndElementEvent;
+import com.google.code.activetemplates.events.EventBody;
+import com.google.code.activetemplates.events.StartElementEvent;
+import com.google.code.activetemplates.events.TemplateEvent;
+import com.google.code.activetemplates.impl.handlers.BuiltinHandlerSPI;
+import com.google.code.activetemplates.util.ObjectIterator;
+import com.google.code.activetemplates.util.TemplateUtils;
+
+/**
+ * Iterates over Map, Iterable, Array or a single Object passed to data
+ * attribute
+ * 
+ * @author sleepless
+ * 
+ */
+public class EachEl implements ElementHandler {
+
+    public static final QName ELEMENT = new QName(
+            BuiltinHandlerSPI.NAMESPACE_STDLIB, "each");
+
+    public static final QName ATTR_DATA = new QName("data");
+    public static final QName ATTR_VALUE = new QName("value");
+    public static final QName ATTR_INDEX = new QName("index");
+    public static final QName ATTR_KEY = new QName("key");
+
+    public QName[] getElements() {
+        return new QName[]{ ELEMENT };
+    }
+
+    public Outcome processStart(StartElementEvent e) throws XMLStreamException {
+
+        // attributes
+        String dValue = TemplateUtils.getAttribute(e, ATTR_DATA);
+        String oName = TemplateUtils.getAttribute(e, ATTR_VALUE);
+        String iName = TemplateUtils.getAttribute(e, ATTR_INDEX, null);
+        String kName = TemplateUtils.getAttribute(e, ATTR_KEY, null);
+
+        // read content
+        EventBody body = e.getEventStream().readBody();
+
+        // data
+        Object data = e.parseExpression(dValue, Object.class);
+        ObjectIterator oit = ObjectIterator.create(data);
+
+        e.getEventStream().queueAction(
+                new EachAction(e, oit, body, oName, iName, kName));
+
+        return null;
+    }
+
+    public void processEnd(EndElementEvent e) {
+    }
+
+    private static class EachAction implements
+            com.google.code.activetemplates.events.Action {
+
+        private ObjectIterator oit;
+        private EventBody body;
+        private String[] vars;
+        private int[] slots;
+        
+        // values of outer variables of the same names
+        private Object[] outer;
+
+        EachAction(TemplateEvent e, ObjectIterator oit, EventBody body, String oName,
+                String iName, String kName) {
+            this.oit = oit;
+            this.body = body;
+
+            vars = new String[] { oName, iName, kName };
+            slots = new int[vars.length];
+            for(int i = 0; i < vars.length; i++) {
+                slots[i] = vars[i] == null ? -1 : e.getVariableSlot(vars[i]);
+            }
+        }
+
+        public void execute(TemplateEvent te) {
+
+            if (oit.next()) {
+                // setup scope
+                boolean first = outer == null;
+                if(first) {
+                    outer = new Object[vars.length];
+                }
+                set(te, 0, oit.getObject(), first);
+                set(te, 1, oit.getIndex(), first);
+                set(te, 2, oit.getKey(), first);
+                
+                te.getEventStream().queueBody(body);
+                te.getEventStream().queueAction(this);
+                
+            } else if(outer != null) {
+                // leave scope
+                for(int i = 0; i < vars.length; i++) {
+                    if(slots[i] >= 0) te.setVariable(slots[i], outer[i]);
+                }
+            }
+
+        }
+        
+        private void set(TemplateEvent te, int i, Object value, boolean first) {
+            if(slots[i] >= 0) {
+                Object previous = te.setVariable(slots[i], value);
+                if(first) outer[i] = previous;
+            } else if(vars[i] != null) {
+                te.setExpressionValue(vars[i], value);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.code.activetemplates.lib.elements;
+
+import java.util.Collection;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+
+import com.google.code.activetemplates.events.ElementHandler;
+import com.google.code.activetemplates.events.EndElementEvent;
+import com.google.code.activetemplates.events.StartElementEvent;
+import com.google.code.activetemplates.impl.handlers.BuiltinHandlerSPI;
+import com.google.code.activetemplates.util.TemplateUtils;
+
+/**
+ * Writes message identified by code attribute, resolved through message 
+ * source of the template compiler in locale of the template.
+ * Optional arguments attribute is an expression evaluating to message 
+ * arguments, default attribute is the text used if message is not found.
+ * Element children are skipped.
+ * 
+ * Messages of localized templates are resolved when template is loaded,
+ * unless their arguments change between renders.
+ * 
+ * @author sleepless
+ * 
+ */
+public class MessageEl implements ElementHandler {
+
+    public static final QName ELEMENT = new QName(
+            BuiltinHandlerSPI.NAMESPACE_STDLIB, "message");
+
+    public static final QName ATTR_CODE = new QName("code");
+    public static final QName ATTR_ARGUMENTS = new QName("arguments");
+    public static final QName ATTR_DEFAULT = new QName("default");
+
+    public QName[] getElements() {
+        return new QName[]{ ELEMENT };
+    }
+
+    public Outcome processStart(StartElementEvent e) throws XMLStreamException {
+        String code = TemplateUtils.getAttribute(e, ATTR_CODE);
+        String arguments = TemplateUtils.getAttribute(e, ATTR_ARGUMENTS, null);
+        String defaultMessage = TemplateUtils.getAttribute(e, ATTR_DEFAULT, null);
+        
+        Object[] args = arguments == null ? null : getArguments(e.parseExpression(arguments, Object.class));
+        String message = e.getMessage(code, args, defaultMessage);
+        
+        // children are skipped, message is written in their place. 
+        // message is not queued, as its text must not be evaluated
+        e.getEventStream().readBody();
+        e.getEventStream().writeEvent(
+                e.getEventStream().getEventFactory().createCharacters(message == null ? "" : message));
+        return null;
+    }
+
+    public void processEnd(EndElementEvent e) {
+    }
+    
+    /**
+     * Returns message arguments from value of arguments attribute,
+     * which is an array, a collection or a single argument
+     * 
+     * @param value
+     * @return
+     */
+    public static Object[] getArguments(Object value) {
+        if(value == null) {
+            return null;
+        } else if(value instanceof Object[]) {
+            return (Object[]) value;
+        } else if(value instanceof Collection<?>) {
+            return ((Collection<?>) value).toArray();
+        }
+        return new Object[]{ value };
+    }
+
+}
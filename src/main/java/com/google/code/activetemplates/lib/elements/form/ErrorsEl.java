@@ -1,5 +1,5 @@
-package com.google.code.activetemplates.lib.elements.form;
-
-public class ErrorsEl {
-
-}
+package com.google.code.activetemplates.lib.elements.form;
+
+public class ErrorsEl {
+
+}
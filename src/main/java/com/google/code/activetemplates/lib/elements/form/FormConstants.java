@@ -1,17 +1,21 @@
-package com.google.code.activetemplates.lib.elements.form;
-
-import javax.xml.namespace.QName;
-
-public final class FormConstants {
-
-    public static final QName ATTR_ACTION = new QName("action");
-    public static final QName ATTR_METHOD = new QName("method");
-
-    public static final QName ATTR_PATH    = new QName("path");
-    public static final QName ATTR_TYPE   = new QName("type");
-    public static final QName ATTR_NAME   = new QName("name");
-    public static final QName ATTR_VALUE   = new QName("value");
-    public static final QName ATTR_CHECKED = new QName("checked");
-
-    
-}
+package com.google.code.activetemplates.lib.elements.form;
+
+import javax.xml.namespace.QName;
+
+import com.google.code.activetemplates.events.EnvironmentKey;
+
+public final class FormConstants {
+
+    public static final QName ATTR_ACTION = new QName("action");
+    public static final QName ATTR_METHOD = new QName("method");
+
+    public static final QName ATTR_PATH    = new QName("path");
+    public static final QName ATTR_TYPE   = new QName("type");
+    public static final QName ATTR_NAME   = new QName("name");
+    public static final QName ATTR_VALUE   = new QName("value");
+    public static final QName ATTR_CHECKED = new QName("checked");
+    
+    public static final EnvironmentKey<FormBean> FORM = EnvironmentKey.get(FormBean.class);
+
+    
+}
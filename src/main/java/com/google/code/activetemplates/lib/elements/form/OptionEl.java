@@ -1,5 +1,5 @@
-package com.google.code.activetemplates.lib.elements.form;
-
-public class OptionEl {
-
-}
+package com.google.code.activetemplates.lib.elements.form;
+
+public class OptionEl {
+
+}
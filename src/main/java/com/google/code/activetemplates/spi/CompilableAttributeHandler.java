@@ -0,0 +1,44 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.code.activetemplates.spi;
+
+import javax.xml.stream.events.Attribute;
+
+import com.google.code.activetemplates.events.AttributeHandler;
+
+/**
+ * Attribute handler, which can also be compiled into a render node, so that
+ * templates using it can be rendered through compiled plans.
+ * 
+ * Compiled attribute wraps the node of its element. Elements with several
+ * compiled attributes are wrapped so that the node of the first attribute
+ * is rendered first, as attributes are handled in their order.
+ * 
+ * @see CompilableElementHandler
+ * @author sleepless
+ */
+public interface CompilableAttributeHandler extends AttributeHandler {
+
+    /**
+     * Returns compiled form of specified attribute
+     * 
+     * @param attribute
+     * @param element - renders the element, without this attribute
+     * @return node, or null if the element has to be interpreted
+     */
+    public RenderNode compile(Attribute attribute, RenderNode element);
+    
+}
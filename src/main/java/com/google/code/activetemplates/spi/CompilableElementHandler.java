@@ -0,0 +1,44 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.code.activetemplates.spi;
+
+import javax.xml.stream.events.StartElement;
+
+import com.google.code.activetemplates.events.ElementHandler;
+
+/**
+ * Element handler, which can also be compiled into a render node, so that
+ * templates using it can be rendered through compiled plans.
+ * 
+ * Elements of handlers which do not implement this interface are still
+ * interpreted event by event, but only within their own subtree.
+ * 
+ * @see com.google.code.activetemplates.impl.TemplateCompilerImpl#setCompiledTemplates(java.util.Set)
+ * @author sleepless
+ */
+public interface CompilableElementHandler extends ElementHandler {
+
+    /**
+     * Returns compiled form of specified element. Compiled node must
+     * render the same output as the handler would.
+     * 
+     * @param element - element as written in the template
+     * @param body - renders children of the element
+     * @return node, or null if this element has to be interpreted
+     */
+    public RenderNode compile(StartElement element, RenderNode body);
+    
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.code.activetemplates.spi;
+
+import org.springframework.expression.EvaluationContext;
+
+/**
+ * Expression parsed by an expression engine.
+ * 
+ * Expressions are evaluated against evaluation context of a render, which 
+ * holds root object and variables of the render and shared accessors, 
+ * converters and functions.
+ * 
+ * @author sleepless
+ */
+public interface CompiledExpression {
+    
+    /**
+     * Returns source text of the expression
+     * 
+     * @return
+     */
+    public String getExpressionString();
+
+    /**
+     * Evaluates expression against root object of the context
+     * 
+     * @param <T>
+     * @param context
+     * @param type - type to convert result to
+     * @return
+     */
+    public <T> T getValue(EvaluationContext context, Class<T> type);
+    
+    /**
+     * Evaluates expression against specified root object
+     * 
+     * @param <T>
+     * @param context
+     * @param rootObject
+     * @param type - type to convert result to
+     * @return
+     */
+    public <T> T getValue(EvaluationContext context, Object rootObject, Class<T> type);
+    
+    /**
+     * Assigns value to the variable or property denoted by expression
+     * 
+     * @param context
+     * @param value
+     */
+    public void setValue(EvaluationContext context, Object value);
+    
+}
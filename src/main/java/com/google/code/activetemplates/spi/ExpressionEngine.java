@@ -0,0 +1,47 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.code.activetemplates.spi;
+
+/**
+ * Parses expressions used by templates into reusable compiled expressions.
+ * 
+ * Compiled expressions are cached and shared by all renders of a template
+ * compiler, so they must be thread safe and must not keep any per-render 
+ * state.
+ * 
+ * @see com.google.code.activetemplates.impl.TemplateCompilerImpl#setExpressionEngine(ExpressionEngine)
+ * @author sleepless
+ */
+public interface ExpressionEngine {
+
+    /**
+     * Parses plain expression, e.g. <code>#it.name</code>
+     * 
+     * @param expression
+     * @return
+     */
+    public CompiledExpression parseExpression(String expression);
+    
+    /**
+     * Parses text with embedded expressions, e.g. <code>Hello, ${name}</code>
+     * 
+     * @param template
+     * @return
+     */
+    public CompiledExpression parseTemplate(String template);
+    
+}
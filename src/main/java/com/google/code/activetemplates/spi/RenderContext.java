@@ -0,0 +1,101 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.code.activetemplates.spi;
+
+import java.util.Locale;
+
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.XMLEvent;
+
+/**
+ * State of a render, as seen by compiled render nodes.
+ * 
+ * @see RenderNode
+ * @author sleepless
+ */
+public interface RenderContext {
+
+    /**
+     * Evaluates plain expression against the model of the render
+     * 
+     * @param expression
+     * @param clazz - required type of the result
+     * @return
+     */
+    public <T> T parseExpression(String expression, Class<T> clazz);
+    
+    /**
+     * Evaluates text with embedded expressions
+     * 
+     * @param expression
+     * @param clazz - required type of the result
+     * @return
+     */
+    public <T> T parseTemplateExpression(String expression, Class<T> clazz);
+    
+    /**
+     * Returns slot of local variable referenced by expression, 
+     * or -1 if expression is not a plain variable reference
+     * 
+     * @param expression
+     * @return
+     */
+    public int getVariableSlot(String expression);
+    
+    /**
+     * Stores value of local variable in specified slot
+     * 
+     * @param slot
+     * @param value
+     * @return previous value, which restores variable when stored back
+     */
+    public Object setVariable(int slot, Object value);
+    
+    public Locale getLocale();
+    
+    /**
+     * Resolves message for the locale of the render
+     * 
+     * @param code
+     * @param args - message arguments, or null
+     * @param defaultMessage - returned if message is not found, or null
+     * @return
+     */
+    public String getMessage(String code, Object[] args, String defaultMessage);
+    
+    public XMLEventFactory getElementFactory();
+    
+    /**
+     * Writes event to the output of the render
+     * 
+     * @param e
+     * @throws XMLStreamException
+     */
+    public void write(XMLEvent e) throws XMLStreamException;
+    
+    /**
+     * Returns this context, or context it wraps, as an object of specified
+     * class. Contexts which wrap another one must delegate to it, as nodes 
+     * passed to compilable handlers find their render through this method.
+     * 
+     * @param <T>
+     * @param clazz
+     * @return context as specified class, or null if it is not one
+     */
+    public <T> T unwrap(Class<T> clazz);
+    
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.code.activetemplates.spi;
+
+import javax.xml.stream.XMLStreamException;
+
+/**
+ * Compiled form of a template element, rendered by compiled templates
+ * instead of interpreting its events.
+ * 
+ * Nodes are built once when template is compiled and shared by all renders,
+ * so they must be thread safe and keep any per-render state in the context.
+ * 
+ * @see CompilableElementHandler
+ * @see CompilableAttributeHandler
+ * @author sleepless
+ */
+public interface RenderNode {
+
+    /**
+     * Writes output of this node
+     * 
+     * @param context - state of the render
+     * @throws XMLStreamException
+     */
+    public void render(RenderContext context) throws XMLStreamException;
+    
+}
@@ -1,61 +1,99 @@
-package com.google.code.activetemplates.view;
-
-import java.util.HashMap;
-import java.util.Locale;
-import java.util.Map;
-
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.web.servlet.View;
-import org.springframework.web.servlet.view.AbstractCachingViewResolver;
-
-import com.google.code.activetemplates.Template;
-import com.google.code.activetemplates.TemplateBuilder;
-import com.google.code.activetemplates.TemplateCompiler;
-
-public class TemplateViewResolver extends AbstractCachingViewResolver {
-
-    private TemplateCompiler templateCompiler;
-    private TemplateBuilder templateBuilder;
-    
-    private volatile Map<String, Template> templates;
-    
-    public TemplateCompiler getTemplateCompiler() {
-        return templateCompiler;
-    }
-    
-    @Autowired
-    public void setTemplateCompiler(TemplateCompiler templateCompiler) {
-        this.templateCompiler = templateCompiler;
-    }
-    
-    public TemplateBuilder getTemplateBuilder() {
-        return templateBuilder;
-    }
-    
-    @Autowired
-    public void setTemplateBuilder(TemplateBuilder templateBuilder) {
-        this.templateBuilder = templateBuilder;
-    }
-
-    @Override
-    protected View loadView(String viewName, Locale locale) throws Exception {
-        ensureTemplatesBuilt();
-        Template t = templates.get(viewName);
-        if(t == null) return null;
-        return new TemplateView(t, templateCompiler);
-    }
-
-    private void ensureTemplatesBuilt() {
-        if(templates == null) {
-            synchronized(TemplateViewResolver.class) {
-                if(templates == null) {
-                    templates = new HashMap<String, Template>();
-                    for(Template t: templateBuilder.build()) {
-                        templates.put(t.getName(), t);
-                    }
-                }
-            }
-        }
-    }
-
-}
+package com.google.code.activetemplates.view;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.servlet.View;
+import org.springframework.web.servlet.view.AbstractCachingViewResolver;
+
+import com.google.code.activetemplates.LocalizedTemplate;
+import com.google.code.activetemplates.Template;
+import com.google.code.activetemplates.TemplateBuilder;
+import com.google.code.activetemplates.TemplateCompiler;
+
+public class TemplateViewResolver extends AbstractCachingViewResolver {
+
+    private TemplateCompiler templateCompiler;
+    private TemplateBuilder templateBuilder;
+    
+    private final Object templatesLock = new Object();
+    private volatile Map<String, Template> templates;
+    private final ConcurrentMap<Object, View> views = new ConcurrentHashMap<Object, View>();
+    
+    public TemplateCompiler getTemplateCompiler() {
+        return templateCompiler;
+    }
+    
+    @Autowired
+    public void setTemplateCompiler(TemplateCompiler templateCompiler) {
+        this.templateCompiler = templateCompiler;
+    }
+    
+    public TemplateBuilder getTemplateBuilder() {
+        return templateBuilder;
+    }
+    
+    @Autowired
+    public void setTemplateBuilder(TemplateBuilder templateBuilder) {
+        this.templateBuilder = templateBuilder;
+    }
+
+    // base class synchronizes every lookup on its view cache,
+    // views are cached in a concurrent map instead
+    @Override
+    public View resolveViewName(String viewName, Locale locale) throws Exception {
+        if(!isCache()) {
+            return createView(viewName, locale);
+        }
+        Object key = getCacheKey(viewName, locale);
+        View v = views.get(key);
+        if(v == null) {
+            v = createView(viewName, locale);
+            if(v != null) {
+                views.putIfAbsent(key, v);
+            }
+        }
+        return v;
+    }
+    
+    @Override
+    public void removeFromCache(String viewName, Locale locale) {
+        views.remove(getCacheKey(viewName, locale));
+    }
+    
+    @Override
+    public void clearCache() {
+        views.clear();
+    }
+
+    @Override
+    protected View loadView(String viewName, Locale locale) throws Exception {
+        ensureTemplatesBuilt();
+        Template t = templates.get(viewName);
+        if(t == null) return null;
+        // compiler decides whether locale gets its own variant of the template
+        return new TemplateView(locale == null ? t : new LocalizedTemplate(t, locale), templateCompiler);
+    }
+
+    // templates are built once per resolver and published as an immutable map,
+    // so resolving views afterwards takes no locks
+    private void ensureTemplatesBuilt() {
+        if(templates == null) {
+            synchronized(templatesLock) {
+                if(templates == null) {
+                    Map<String, Template> m = new HashMap<String, Template>();
+                    for(Template t: templateBuilder.build()) {
+                        m.put(t.getName(), t);
+                    }
+                    templates = Collections.unmodifiableMap(m);
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.code.activetemplates.xml;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import javax.xml.stream.XMLStreamException;
+
+/**
+ * Event writer which serializes events straight into a character stream.
+ *
+ * @author sleepless
+ */
+public class CharEventWriter extends SerializingEventWriter {
+
+    private static final int BUFFER_SIZE = 2048;
+
+    private final Writer out;
+    private final char[] buf;
+    private int count;
+
+    public CharEventWriter(Writer out) {
+        this.out = out;
+        buf = new char[BUFFER_SIZE];
+    }
+
+    @Override
+    protected void write(char c) throws XMLStreamException {
+        if(count == buf.length) {
+            flushBuffer();
+        }
+        buf[count++] = c;
+    }
+
+    @Override
+    protected void writeCodePoint(int c) throws XMLStreamException {
+        if(count > buf.length - 2) {
+            flushBuffer();
+        }
+        count += Character.toChars(c, buf, count);
+    }
+
+    @Override
+    protected void writeEncoded(Segment s) throws XMLStreamException {
+        char[] c = s.getChars();
+        if(c.length > buf.length - count) {
+            flushBuffer();
+            if(c.length > buf.length) {
+                try {
+                    out.write(c);
+                } catch(IOException e) {
+                    throw new XMLStreamException(e);
+                }
+                return;
+            }
+        }
+        System.arraycopy(c, 0, buf, count, c.length);
+        count += c.length;
+    }
+
+    @Override
+    protected void flushBuffer() throws XMLStreamException {
+        if(count > 0) {
+            try {
+                out.write(buf, 0, count);
+            } catch(IOException e) {
+                throw new XMLStreamException(e);
+            }
+            count = 0;
+        }
+    }
+
+    @Override
+    protected void flushOutput() throws XMLStreamException {
+        try {
+            out.flush();
+        } catch(IOException e) {
+            throw new XMLStreamException(e);
+        }
+    }
+
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.code.activetemplates.xml;
+
+import java.io.Writer;
+
+import javax.xml.stream.XMLEventWriter;
+
+/**
+ * Sink serializing directly into a character stream
+ * 
+ * @author sleepless
+ *
+ */
+public class CharSink implements XmlSink {
+
+    private Writer out;
+    
+    public CharSink(Writer out) {
+        this.out = out;
+    }
+    
+    @Override
+    public XMLEventWriter createWriter() {
+        return new CharEventWriter(out);
+    }
+
+}
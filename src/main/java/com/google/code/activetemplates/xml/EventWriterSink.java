@@ -0,0 +1,44 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.code.activetemplates.xml;
+
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+
+/**
+ * Sink writing to an xml result through a StAX event writer
+ * 
+ * @author sleepless
+ *
+ */
+public class EventWriterSink implements XmlSink {
+
+    private XMLOutputFactory factory;
+    private XmlResult result;
+    
+    public EventWriterSink(XMLOutputFactory factory, XmlResult result) {
+        this.factory = factory;
+        this.result = result;
+    }
+    
+    @Override
+    public XMLEventWriter createWriter() throws XMLStreamException {
+        return factory.createXMLEventWriter(result.getResult());
+    }
+
+}
@@ -0,0 +1,787 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.code.activetemplates.xml;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.Characters;
+import javax.xml.stream.events.Comment;
+import javax.xml.stream.events.DTD;
+import javax.xml.stream.events.EntityReference;
+import javax.xml.stream.events.Namespace;
+import javax.xml.stream.events.ProcessingInstruction;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+/**
+ * Base class for event writers which serialize events straight into
+ * characters or bytes, without going through a StAX writer.
+ *
+ * Output follows the one of a namespace repairing StAX writer: start tags
+ * are kept open until next event, so elements without content are written
+ * as empty tags, missing namespace declarations are added, prefixes of 
+ * names without namespace are dropped and end tags are always written 
+ * with the name of the open element.
+ * 
+ * Output is equivalent, but not always the same. Where an element 
+ * redeclares a prefix for its attributes, e.g. 
+ * <code>&lt;b xmlns:p="urn:q" p:y="2"/&gt;</code> inside an element 
+ * binding p to another namespace, this writer keeps the declaration as 
+ * written, while woodstox binds the attributes to a generated prefix.
+ *
+ * Besides events, writer accepts pre-encoded segments of static markup,
+ * which are copied to the output as is, as long as namespaces they rely on
+ * are bound as they were when the segment was encoded.
+ * 
+ * Subclasses only provide encoding of characters.
+ *
+ * @author sleepless
+ */
+public abstract class SerializingEventWriter implements XMLEventWriter {
+
+    private static final String GENERATED_PREFIX = "wstxns";
+
+    // start tag was written, but not closed yet
+    private boolean startOpen;
+    private int depth;
+    // written names of open elements, indexed by depth
+    private String[] names;
+    // number of elements ended, which were opened before this writer,
+    // and their written names
+    private int pops;
+    private List<String> closed;
+
+    // namespace bindings in effect, innermost last
+    private String[] nsPrefixes;
+    private String[] nsUris;
+    private int[] nsDepths;
+    private int nsCount;
+    private int generatedPrefixes;
+    // a prefix was looked up by uri, so output depends on all bindings
+    private boolean prefixSearched;
+
+    private NamespaceContext namespaceContext;
+
+    protected SerializingEventWriter() {
+        names = new String[16];
+        nsPrefixes = new String[8];
+        nsUris = new String[8];
+        nsDepths = new int[8];
+    }
+
+    /**
+     * Encodes specified static events into a segment, which does not rely
+     * on any namespace bindings in effect.
+     *
+     * @param events
+     * @return
+     * @see #createSegment(List, NamespaceContext)
+     */
+    public static Segment createSegment(List<XMLEvent> events) {
+        return createSegment(events, null);
+    }
+
+    /**
+     * Encodes specified static events into a segment.
+     * Returns null if events can not be pre-encoded: only text and
+     * elements qualify, segment can not start with an end element and
+     * its attributes may not need generated prefixes.
+     * 
+     * Segment is encoded as if specified namespaces were bound, it is 
+     * written as is only where prefixes it uses are bound the same way.
+     *
+     * @param events
+     * @param context - namespaces expected to be bound where segment is written, or null
+     * @return
+     */
+    public static Segment createSegment(List<XMLEvent> events, NamespaceContext context) {
+        if(events.isEmpty() || events.get(0).isEndElement()) {
+            return null;
+        }
+
+        // prefixes segment looks up, along with number of elements opened 
+        // before it which it has closed by then
+        List<String> prefixes = new ArrayList<String>();
+        List<Integer> prefixPops = new ArrayList<Integer>();
+        Set<String> looked = new LinkedHashSet<String>();
+        int popped = 0;
+        int level = 0;
+        for(XMLEvent e: events) {
+            if(e.isStartElement()) {
+                looked.clear();
+                addPrefixes(e.asStartElement(), looked);
+                for(String prefix: looked) {
+                    if(!contains(prefixes, prefixPops, prefix, popped)) {
+                        prefixes.add(prefix);
+                        prefixPops.add(popped);
+                    }
+                }
+                level++;
+            } else if(e.isEndElement()) {
+                if(level == 0) {
+                    popped++;
+                } else {
+                    level--;
+                }
+            } else if(!e.isCharacters()) {
+                return null;
+            }
+        }
+
+        StringWriter sw = new StringWriter();
+        SerializingEventWriter w = new CharEventWriter(sw);
+        w.namespaceContext = context;
+        w.closed = new ArrayList<String>();
+        String[] uris = w.getNamespaceURIs(prefixes);
+        try {
+            for(XMLEvent e: events) {
+                w.add(e);
+            }
+            w.flushBuffer();
+        } catch(XMLStreamException e) {
+            // unwritable text, leave it for render time to report
+            return null;
+        }
+        if(w.prefixSearched || w.generatedPrefixes > 0) {
+            return null;
+        }
+        String text = sw.toString();
+
+        // segment may close elements opened before it and leave its own open
+        String[] opened = new String[w.depth];
+        System.arraycopy(w.names, 1, opened, 0, opened.length);
+
+        Segment s = new Segment(events.toArray(new XMLEvent[events.size()]), text.toCharArray(), 
+                Utf8EventWriter.encode(text), w.pops, opened, w.startOpen);
+        s.closed = w.closed.toArray(new String[w.closed.size()]);
+        s.prefixes = prefixes.toArray(new String[prefixes.size()]);
+        s.uris = uris;
+        s.prefixPops = new int[prefixPops.size()];
+        for(int i = 0; i < s.prefixPops.length; i++) {
+            s.prefixPops[i] = prefixPops.get(i);
+        }
+        
+        // namespaces declared by elements left open stay bound
+        s.boundPrefixes = new String[w.nsCount];
+        s.boundUris = new String[w.nsCount];
+        s.boundDepths = new int[w.nsCount];
+        System.arraycopy(w.nsPrefixes, 0, s.boundPrefixes, 0, w.nsCount);
+        System.arraycopy(w.nsUris, 0, s.boundUris, 0, w.nsCount);
+        System.arraycopy(w.nsDepths, 0, s.boundDepths, 0, w.nsCount);
+        return s;
+    }
+
+    // adds prefixes which writer looks up to write specified element
+    private static void addPrefixes(StartElement se, Set<String> prefixes) {
+        QName name = se.getName();
+        prefixes.add(nonNull(name.getNamespaceURI()).length() == 0 ? XMLConstants.DEFAULT_NS_PREFIX : name.getPrefix());
+
+        @SuppressWarnings("unchecked")
+        Iterator<Namespace> nsit = se.getNamespaces();
+        while(nsit.hasNext()) {
+            prefixes.add(nsit.next().getPrefix());
+        }
+
+        @SuppressWarnings("unchecked")
+        Iterator<Attribute> it = se.getAttributes();
+        while(it.hasNext()) {
+            QName an = it.next().getName();
+            if(nonNull(an.getNamespaceURI()).length() > 0) {
+                prefixes.add(an.getPrefix());
+            }
+        }
+    }
+
+    private static boolean contains(List<String> prefixes, List<Integer> prefixPops, String prefix, int pops) {
+        for(int i = 0; i < prefixes.size(); i++) {
+            if(prefixPops.get(i) == pops && prefixes.get(i).equals(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String[] getNamespaceURIs(List<String> prefixes) {
+        String[] uris = new String[prefixes.size()];
+        int i = 0;
+        for(String prefix: prefixes) {
+            uris[i++] = getNamespaceURI(prefix);
+        }
+        return uris;
+    }
+
+    /**
+     * Writes pre-encoded segment to the output
+     *
+     * @param s
+     * @throws XMLStreamException
+     */
+    public void writeSegment(Segment s) throws XMLStreamException {
+        if(!isWritable(s)) {
+            for(XMLEvent e: s.events) {
+                add(e);
+            }
+            return;
+        }
+
+        closeStart();
+        writeEncoded(s);
+
+        depth -= s.pops;
+        popNamespaces();
+        int base = depth;
+        for(String name: s.opened) {
+            pushName(name);
+        }
+        for(int i = 0; i < s.boundPrefixes.length; i++) {
+            bind(s.boundPrefixes[i], s.boundUris[i], base + s.boundDepths[i]);
+        }
+        startOpen = s.open;
+    }
+
+    // whether encoded segment is the same as its events written here:
+    // elements it closes are open and prefixes it uses are bound as expected
+    private boolean isWritable(Segment s) {
+        if(s.pops > depth) {
+            return false;
+        }
+        for(int k = 0; k < s.pops; k++) {
+            if(!names[depth - k].equals(s.closed[k])) {
+                return false;
+            }
+        }
+        // prefixes must be bound the same way where segment looks them up
+        for(int i = 0; i < s.prefixes.length; i++) {
+            String uri = getNamespaceURI(s.prefixes[i], depth - s.prefixPops[i]);
+            if(uri == null ? s.uris[i] != null : !uri.equals(s.uris[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void add(XMLEvent e) throws XMLStreamException {
+        switch(e.getEventType()) {
+        case XMLEvent.START_ELEMENT:
+            writeStartElement(e.asStartElement());
+            break;
+        case XMLEvent.END_ELEMENT:
+            writeEndElement(e.asEndElement().getName());
+            break;
+        case XMLEvent.CHARACTERS:
+        case XMLEvent.CDATA:
+        case XMLEvent.SPACE:
+            Characters c = e.asCharacters();
+            if(c.isCData()) {
+                writeCData(c.getData());
+            } else {
+                writeCharacters(c.getData());
+            }
+            break;
+        case XMLEvent.ATTRIBUTE:
+            writeAttribute((Attribute) e);
+            break;
+        case XMLEvent.NAMESPACE:
+            if(!startOpen) {
+                throw new XMLStreamException("No open start element to add namespace to");
+            }
+            writeNamespace((Namespace) e);
+            break;
+        case XMLEvent.COMMENT:
+            closeStart();
+            write("<!--");
+            write(((Comment) e).getText());
+            write("-->");
+            break;
+        case XMLEvent.PROCESSING_INSTRUCTION:
+            ProcessingInstruction pi = (ProcessingInstruction) e;
+            closeStart();
+            write("<?");
+            write(pi.getTarget());
+            if(pi.getData() != null && pi.getData().length() > 0) {
+                write(' ');
+                write(pi.getData());
+            }
+            write("?>");
+            break;
+        case XMLEvent.ENTITY_REFERENCE:
+            closeStart();
+            write('&');
+            write(((EntityReference) e).getName());
+            write(';');
+            break;
+        case XMLEvent.DTD:
+            write(((DTD) e).getDocumentTypeDeclaration());
+            break;
+        case XMLEvent.START_DOCUMENT:
+            write("<?xml version='1.0' encoding='UTF-8'?>");
+            break;
+        case XMLEvent.END_DOCUMENT:
+            closeStart();
+            break;
+        default:
+            throw new XMLStreamException("Unsupported event type " + e.getEventType());
+        }
+    }
+
+    @Override
+    public void add(XMLEventReader reader) throws XMLStreamException {
+        while(reader.hasNext()) {
+            add(reader.nextEvent());
+        }
+    }
+
+    private void writeStartElement(StartElement se) throws XMLStreamException {
+        closeStart();
+
+        QName name = se.getName();
+        String uri = nonNull(name.getNamespaceURI());
+        String prefix = uri.length() == 0 ? XMLConstants.DEFAULT_NS_PREFIX : name.getPrefix();
+        String qname = prefix.length() == 0 ? name.getLocalPart() : prefix + ':' + name.getLocalPart();
+
+        pushName(qname);
+        write('<');
+        write(qname);
+        startOpen = true;
+
+        if(!uri.equals(getNamespaceURI(prefix))) {
+            declare(prefix, uri);
+        }
+
+        @SuppressWarnings("unchecked")
+        Iterator<Namespace> nsit = se.getNamespaces();
+        while(nsit.hasNext()) {
+            writeNamespace(nsit.next());
+        }
+
+        @SuppressWarnings("unchecked")
+        Iterator<Attribute> it = se.getAttributes();
+        while(it.hasNext()) {
+            writeAttribute(it.next());
+        }
+    }
+
+    private void writeEndElement(QName name) throws XMLStreamException {
+        if(startOpen) {
+            write('/');
+            write('>');
+            startOpen = false;
+        } else if(depth > 0) {
+            write('<');
+            write('/');
+            write(names[depth]);
+            write('>');
+        } else {
+            // element was opened before, as it happens to segments
+            String qname = nonNull(name.getNamespaceURI()).length() == 0 || name.getPrefix().length() == 0 
+                ? name.getLocalPart() : name.getPrefix() + ':' + name.getLocalPart();
+            write('<');
+            write('/');
+            write(qname);
+            write('>');
+            pops++;
+            if(closed != null) {
+                closed.add(qname);
+            }
+            return;
+        }
+
+        depth--;
+        popNamespaces();
+    }
+
+    private void pushName(String name) {
+        depth++;
+        if(depth == names.length) {
+            String[] n = new String[depth * 2];
+            System.arraycopy(names, 0, n, 0, depth);
+            names = n;
+        }
+        names[depth] = name;
+    }
+
+    // drops bindings of elements which are not open anymore
+    private void popNamespaces() {
+        while(nsCount > 0 && nsDepths[nsCount - 1] > depth) {
+            nsCount--;
+        }
+    }
+
+    private void writeNamespace(Namespace ns) throws XMLStreamException {
+        String prefix = ns.getPrefix();
+        String uri = nonNull(ns.getNamespaceURI());
+        if(!uri.equals(getNamespaceURI(prefix))) {
+            declare(prefix, uri);
+        }
+    }
+
+    private void writeAttribute(Attribute a) throws XMLStreamException {
+        if(!startOpen) {
+            throw new XMLStreamException("No open start element to add attribute to");
+        }
+
+        QName name = a.getName();
+        String uri = nonNull(name.getNamespaceURI());
+        String prefix = uri.length() == 0 ? XMLConstants.DEFAULT_NS_PREFIX : name.getPrefix();
+
+        if(uri.length() > 0 && (prefix.length() == 0 || !uri.equals(getNamespaceURI(prefix)))) {
+            if(prefix.length() == 0 || isDeclaredHere(prefix)) {
+                prefixSearched = true;
+                prefix = findPrefix(uri);
+                if(prefix == null) {
+                    prefix = GENERATED_PREFIX + (++generatedPrefixes);
+                    declare(prefix, uri);
+                }
+            } else {
+                declare(prefix, uri);
+            }
+        }
+
+        write(' ');
+        writeName(prefix, name.getLocalPart());
+        write('=');
+        write('"');
+        writeEscaped(a.getValue(), true);
+        write('"');
+    }
+
+    private void writeCharacters(String text) throws XMLStreamException {
+        closeStart();
+        writeEscaped(text, false);
+    }
+
+    private void writeCData(String text) throws XMLStreamException {
+        if(text.indexOf("]]>") >= 0) {
+            throw new XMLStreamException("CDATA block has embedded ']]>' in it");
+        }
+        closeStart();
+        write("<![CDATA[");
+        write(text);
+        write("]]>");
+    }
+
+    private void closeStart() throws XMLStreamException {
+        if(startOpen) {
+            write('>');
+            startOpen = false;
+        }
+    }
+
+    private void writeName(String prefix, String localName) throws XMLStreamException {
+        if(prefix != null && prefix.length() > 0) {
+            write(prefix);
+            write(':');
+        }
+        write(localName);
+    }
+
+    private void declare(String prefix, String uri) throws XMLStreamException {
+        bind(prefix, uri, depth);
+
+        write(" xmlns");
+        if(prefix.length() > 0) {
+            write(':');
+            write(prefix);
+        }
+        write('=');
+        write('"');
+        writeEscaped(uri, true);
+        write('"');
+    }
+
+    private void bind(String prefix, String uri, int depth) {
+        if(nsCount == nsPrefixes.length) {
+            int size = nsCount * 2;
+            String[] prefixes = new String[size];
+            String[] uris = new String[size];
+            int[] depths = new int[size];
+            System.arraycopy(nsPrefixes, 0, prefixes, 0, nsCount);
+            System.arraycopy(nsUris, 0, uris, 0, nsCount);
+            System.arraycopy(nsDepths, 0, depths, 0, nsCount);
+            nsPrefixes = prefixes;
+            nsUris = uris;
+            nsDepths = depths;
+        }
+        nsPrefixes[nsCount] = prefix;
+        nsUris[nsCount] = uri;
+        nsDepths[nsCount] = depth;
+        nsCount++;
+    }
+
+    private boolean isDeclaredHere(String prefix) {
+        for(int i = nsCount - 1; i >= 0 && nsDepths[i] == depth; i--) {
+            if(nsPrefixes[i].equals(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // returns innermost prefix currently bound to specified uri
+    private String findPrefix(String uri) {
+        for(int i = nsCount - 1; i >= 0; i--) {
+            String prefix = nsPrefixes[i];
+            if(prefix.length() > 0 && nsUris[i].equals(uri) && uri.equals(getNamespaceURI(prefix))) {
+                return prefix;
+            }
+        }
+        return null;
+    }
+
+    // returns uri bound to prefix, empty string for unbound default prefix
+    // and null for other unbound prefixes
+    private String getNamespaceURI(String prefix) {
+        return getNamespaceURI(prefix, depth);
+    }
+
+    // same, ignoring bindings of elements deeper than specified depth
+    private String getNamespaceURI(String prefix, int maxDepth) {
+        for(int i = nsCount - 1; i >= 0; i--) {
+            if(nsDepths[i] <= maxDepth && nsPrefixes[i].equals(prefix)) {
+                return nsUris[i];
+            }
+        }
+        if(namespaceContext != null) {
+            String uri = namespaceContext.getNamespaceURI(prefix);
+            if(uri != null && uri.length() > 0) {
+                return uri;
+            }
+        }
+        return prefix.length() == 0 ? XMLConstants.NULL_NS_URI : null;
+    }
+
+    private static String nonNull(String s) {
+        return s == null ? XMLConstants.NULL_NS_URI : s;
+    }
+
+    private void writeEscaped(String s, boolean attribute) throws XMLStreamException {
+        int len = s.length();
+        for(int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            switch(c) {
+            case '&':
+                write("&amp;");
+                break;
+            case '<':
+                write("&lt;");
+                break;
+            case '>':
+                // only a possible end of cdata section marker is escaped in text
+                if(!attribute && (i == 0 || s.charAt(i - 1) == ']')) {
+                    write("&gt;");
+                } else {
+                    write('>');
+                }
+                break;
+            case '"':
+                write(attribute ? "&quot;" : "\"");
+                break;
+            case '\t':
+                write(attribute ? "&#x9;" : "\t");
+                break;
+            case '\n':
+                write(attribute ? "&#xa;" : "\n");
+                break;
+            case '\r':
+                write("&#xd;");
+                break;
+            default:
+                if(c < 0x20) {
+                    throw new XMLStreamException("Invalid white space character (0x"
+                            + Integer.toHexString(c) + ") in text to output");
+                }
+                if(c < 0x80) {
+                    write(c);
+                } else if(Character.isHighSurrogate(c) && i + 1 < len
+                        && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    writeCodePoint(Character.toCodePoint(c, s.charAt(++i)));
+                } else {
+                    writeCodePoint(c);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes characters as is
+     * 
+     * @param s
+     * @throws XMLStreamException
+     */
+    protected void write(String s) throws XMLStreamException {
+        int len = s.length();
+        for(int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if(c < 0x80) {
+                write(c);
+            } else if(Character.isHighSurrogate(c) && i + 1 < len
+                    && Character.isLowSurrogate(s.charAt(i + 1))) {
+                writeCodePoint(Character.toCodePoint(c, s.charAt(++i)));
+            } else {
+                writeCodePoint(c);
+            }
+        }
+    }
+
+    /**
+     * Writes an ascii character
+     * 
+     * @param c
+     * @throws XMLStreamException
+     */
+    protected abstract void write(char c) throws XMLStreamException;
+
+    /**
+     * Writes a non-ascii character
+     * 
+     * @param c - unicode code point
+     * @throws XMLStreamException
+     */
+    protected abstract void writeCodePoint(int c) throws XMLStreamException;
+
+    /**
+     * Writes encoded form of the segment
+     * 
+     * @param s
+     * @throws XMLStreamException
+     */
+    protected abstract void writeEncoded(Segment s) throws XMLStreamException;
+
+    /**
+     * Writes buffered output to the underlying stream
+     * 
+     * @throws XMLStreamException
+     */
+    protected abstract void flushBuffer() throws XMLStreamException;
+
+    /**
+     * Flushes the underlying stream
+     * 
+     * @throws XMLStreamException
+     */
+    protected abstract void flushOutput() throws XMLStreamException;
+
+    @Override
+    public void flush() throws XMLStreamException {
+        flushBuffer();
+        flushOutput();
+    }
+
+    /**
+     * Closes any open start tag and flushes the output.
+     * Underlying stream is not closed.
+     */
+    @Override
+    public void close() throws XMLStreamException {
+        closeStart();
+        flush();
+    }
+
+    @Override
+    public String getPrefix(String uri) throws XMLStreamException {
+        return findPrefix(uri);
+    }
+
+    @Override
+    public void setPrefix(String prefix, String uri) throws XMLStreamException {
+        // namespaces are repaired on output, explicit bindings are not needed
+    }
+
+    @Override
+    public void setDefaultNamespace(String uri) throws XMLStreamException {
+        // namespaces are repaired on output, explicit bindings are not needed
+    }
+
+    @Override
+    public void setNamespaceContext(NamespaceContext context) throws XMLStreamException {
+        namespaceContext = context;
+    }
+
+    @Override
+    public NamespaceContext getNamespaceContext() {
+        return namespaceContext;
+    }
+
+    /**
+     * Run of static events serialized once, as characters and as UTF-8 bytes
+     */
+    public static class Segment {
+
+        private final XMLEvent[] events;
+        private final char[] chars;
+        private final byte[] bytes;
+        private final int pops;
+        private final String[] opened;
+        private final boolean open;
+        
+        // written names of elements it closes, innermost first
+        private String[] closed;
+        // uris it expects prefixes bound to, and number of elements
+        // it has closed when it looks them up
+        private String[] prefixes;
+        private String[] uris;
+        private int[] prefixPops;
+        // namespaces declared by elements it leaves open, with their depths
+        private String[] boundPrefixes;
+        private String[] boundUris;
+        private int[] boundDepths;
+
+        private Segment(XMLEvent[] events, char[] chars, byte[] bytes, int pops, String[] opened, boolean open) {
+            this.events = events;
+            this.chars = chars;
+            this.bytes = bytes;
+            this.pops = pops;
+            this.opened = opened;
+            this.open = open;
+        }
+
+        /**
+         * Returns number of events in this segment
+         * @return
+         */
+        public int size() {
+            return events.length;
+        }
+
+        public XMLEvent getEvent(int index) {
+            return events[index];
+        }
+
+        public char[] getChars() {
+            return chars;
+        }
+
+        public byte[] getBytes() {
+            return bytes;
+        }
+
+    }
+
+}
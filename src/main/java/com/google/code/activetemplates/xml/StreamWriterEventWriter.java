@@ -0,0 +1,185 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.code.activetemplates.xml;
+
+import java.util.Iterator;
+
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.Characters;
+import javax.xml.stream.events.Comment;
+import javax.xml.stream.events.DTD;
+import javax.xml.stream.events.EntityReference;
+import javax.xml.stream.events.Namespace;
+import javax.xml.stream.events.ProcessingInstruction;
+import javax.xml.stream.events.StartDocument;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+/**
+ * Event writer which passes events to a StAX cursor writer.
+ *
+ * @author sleepless
+ */
+public class StreamWriterEventWriter implements XMLEventWriter {
+
+    private final XMLStreamWriter w;
+    private final boolean closeWriter;
+
+    /**
+     * @param w
+     * @param closeWriter - whether to close cursor writer on close, 
+     *                      otherwise it is only flushed
+     */
+    public StreamWriterEventWriter(XMLStreamWriter w, boolean closeWriter) {
+        this.w = w;
+        this.closeWriter = closeWriter;
+    }
+
+    @Override
+    public void add(XMLEvent e) throws XMLStreamException {
+        switch(e.getEventType()) {
+        case XMLEvent.START_ELEMENT:
+            StartElement se = e.asStartElement();
+            QName name = se.getName();
+            w.writeStartElement(name.getPrefix(), name.getLocalPart(), name.getNamespaceURI());
+
+            @SuppressWarnings("unchecked")
+            Iterator<Namespace> nsit = se.getNamespaces();
+            while(nsit.hasNext()) {
+                writeNamespace(nsit.next());
+            }
+
+            @SuppressWarnings("unchecked")
+            Iterator<Attribute> it = se.getAttributes();
+            while(it.hasNext()) {
+                writeAttribute(it.next());
+            }
+            break;
+        case XMLEvent.END_ELEMENT:
+            w.writeEndElement();
+            break;
+        case XMLEvent.CHARACTERS:
+        case XMLEvent.CDATA:
+        case XMLEvent.SPACE:
+            Characters c = e.asCharacters();
+            if(c.isCData()) {
+                w.writeCData(c.getData());
+            } else {
+                w.writeCharacters(c.getData());
+            }
+            break;
+        case XMLEvent.ATTRIBUTE:
+            writeAttribute((Attribute) e);
+            break;
+        case XMLEvent.NAMESPACE:
+            writeNamespace((Namespace) e);
+            break;
+        case XMLEvent.COMMENT:
+            w.writeComment(((Comment) e).getText());
+            break;
+        case XMLEvent.PROCESSING_INSTRUCTION:
+            ProcessingInstruction pi = (ProcessingInstruction) e;
+            w.writeProcessingInstruction(pi.getTarget(), pi.getData());
+            break;
+        case XMLEvent.ENTITY_REFERENCE:
+            w.writeEntityRef(((EntityReference) e).getName());
+            break;
+        case XMLEvent.DTD:
+            w.writeDTD(((DTD) e).getDocumentTypeDeclaration());
+            break;
+        case XMLEvent.START_DOCUMENT:
+            StartDocument sd = (StartDocument) e;
+            if(sd.encodingSet()) {
+                w.writeStartDocument(sd.getCharacterEncodingScheme(), sd.getVersion());
+            } else {
+                w.writeStartDocument(sd.getVersion());
+            }
+            break;
+        case XMLEvent.END_DOCUMENT:
+            w.writeEndDocument();
+            break;
+        default:
+            throw new XMLStreamException("Unsupported event type " + e.getEventType());
+        }
+    }
+
+    private void writeNamespace(Namespace ns) throws XMLStreamException {
+        if(ns.isDefaultNamespaceDeclaration()) {
+            w.writeDefaultNamespace(ns.getNamespaceURI());
+        } else {
+            w.writeNamespace(ns.getPrefix(), ns.getNamespaceURI());
+        }
+    }
+
+    private void writeAttribute(Attribute a) throws XMLStreamException {
+        QName name = a.getName();
+        w.writeAttribute(name.getPrefix(), name.getNamespaceURI(), name.getLocalPart(), a.getValue());
+    }
+
+    @Override
+    public void add(XMLEventReader reader) throws XMLStreamException {
+        while(reader.hasNext()) {
+            add(reader.nextEvent());
+        }
+    }
+
+    @Override
+    public void flush() throws XMLStreamException {
+        w.flush();
+    }
+
+    @Override
+    public void close() throws XMLStreamException {
+        if(closeWriter) {
+            w.close();
+        } else {
+            w.flush();
+        }
+    }
+
+    @Override
+    public String getPrefix(String uri) throws XMLStreamException {
+        return w.getPrefix(uri);
+    }
+
+    @Override
+    public void setPrefix(String prefix, String uri) throws XMLStreamException {
+        w.setPrefix(prefix, uri);
+    }
+
+    @Override
+    public void setDefaultNamespace(String uri) throws XMLStreamException {
+        w.setDefaultNamespace(uri);
+    }
+
+    @Override
+    public void setNamespaceContext(NamespaceContext context) throws XMLStreamException {
+        w.setNamespaceContext(context);
+    }
+
+    @Override
+    public NamespaceContext getNamespaceContext() {
+        return w.getNamespaceContext();
+    }
+
+}
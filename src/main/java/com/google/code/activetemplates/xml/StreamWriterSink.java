@@ -0,0 +1,61 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.code.activetemplates.xml;
+
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Sink writing through a StAX cursor writer. Sink either creates a writer
+ * for an xml result or writes to an existing one, for example to embed
+ * template output into a larger document.
+ * 
+ * @author sleepless
+ *
+ */
+public class StreamWriterSink implements XmlSink {
+
+    private XMLOutputFactory factory;
+    private XmlResult result;
+    private XMLStreamWriter writer;
+    
+    public StreamWriterSink(XMLOutputFactory factory, XmlResult result) {
+        this.factory = factory;
+        this.result = result;
+    }
+    
+    /**
+     * Creates a sink which writes to specified writer. The writer is 
+     * flushed, but not closed after compile.
+     * 
+     * @param writer
+     */
+    public StreamWriterSink(XMLStreamWriter writer) {
+        this.writer = writer;
+    }
+    
+    @Override
+    public XMLEventWriter createWriter() throws XMLStreamException {
+        if(writer != null) {
+            return new StreamWriterEventWriter(writer, false);
+        }
+        return new StreamWriterEventWriter(factory.createXMLStreamWriter(result.getResult()), true);
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.code.activetemplates.xml;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import javax.xml.stream.XMLStreamException;
+
+/**
+ * Event writer which serializes events straight into UTF-8 encoded bytes.
+ * No xml declaration is written.
+ *
+ * @author sleepless
+ */
+public class Utf8EventWriter extends SerializingEventWriter {
+
+    private static final int BUFFER_SIZE = 4096;
+
+    private final OutputStream out;
+    private final byte[] buf;
+    private int count;
+
+    public Utf8EventWriter(OutputStream out) {
+        this.out = out;
+        buf = new byte[BUFFER_SIZE];
+    }
+
+    /**
+     * Encodes characters into UTF-8 the same way as writer does
+     *
+     * @param s
+     * @return
+     */
+    public static byte[] encode(String s) {
+        ByteArrayOutputStream bo = new ByteArrayOutputStream(s.length());
+        Utf8EventWriter w = new Utf8EventWriter(bo);
+        try {
+            w.write(s);
+            w.flushBuffer();
+        } catch(XMLStreamException e) {
+            // not thrown by byte array stream
+            throw new IllegalStateException(e);
+        }
+        return bo.toByteArray();
+    }
+
+    @Override
+    protected void write(char c) throws XMLStreamException {
+        if(count == buf.length) {
+            flushBuffer();
+        }
+        buf[count++] = (byte) c;
+    }
+
+    @Override
+    protected void writeCodePoint(int c) throws XMLStreamException {
+        if(count > buf.length - 4) {
+            flushBuffer();
+        }
+        if(c < 0x800) {
+            buf[count++] = (byte) (0xc0 | (c >> 6));
+            buf[count++] = (byte) (0x80 | (c & 0x3f));
+        } else if(c < 0x10000) {
+            buf[count++] = (byte) (0xe0 | (c >> 12));
+            buf[count++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+            buf[count++] = (byte) (0x80 | (c & 0x3f));
+        } else {
+            buf[count++] = (byte) (0xf0 | (c >> 18));
+            buf[count++] = (byte) (0x80 | ((c >> 12) & 0x3f));
+            buf[count++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+            buf[count++] = (byte) (0x80 | (c & 0x3f));
+        }
+    }
+
+    @Override
+    protected void writeEncoded(Segment s) throws XMLStreamException {
+        byte[] b = s.getBytes();
+        if(b.length > buf.length - count) {
+            flushBuffer();
+            if(b.length > buf.length) {
+                try {
+                    out.write(b);
+                } catch(IOException e) {
+                    throw new XMLStreamException(e);
+                }
+                return;
+            }
+        }
+        System.arraycopy(b, 0, buf, count, b.length);
+        count += b.length;
+    }
+
+    @Override
+    protected void flushBuffer() throws XMLStreamException {
+        if(count > 0) {
+            try {
+                out.write(buf, 0, count);
+            } catch(IOException e) {
+                throw new XMLStreamException(e);
+            }
+            count = 0;
+        }
+    }
+
+    @Override
+    protected void flushOutput() throws XMLStreamException {
+        try {
+            out.flush();
+        } catch(IOException e) {
+            throw new XMLStreamException(e);
+        }
+    }
+
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.code.activetemplates.xml;
+
+import java.io.OutputStream;
+
+import javax.xml.stream.XMLEventWriter;
+
+/**
+ * Sink serializing directly into UTF-8 encoded bytes
+ * 
+ * @author sleepless
+ *
+ */
+public class Utf8Sink implements XmlSink {
+
+    private OutputStream out;
+    
+    public Utf8Sink(OutputStream out) {
+        this.out = out;
+    }
+    
+    @Override
+    public XMLEventWriter createWriter() {
+        return new Utf8EventWriter(out);
+    }
+
+}
@@ -1,23 +1,23 @@
-package com.google.code.activetemplates.xml;
-
-import javax.xml.transform.dom.DOMSource;
-
-public class XmlDOMSource implements XmlSource {
-
-    private DOMSource source;
-    
-    public XmlDOMSource(DOMSource source) {
-        this.source = source;
-    }
-
-    @Override
-    public void close() {
-        
-    }
-
-    @Override
-    public DOMSource getSource() {
-        return source;
-    }
-
-}
+package com.google.code.activetemplates.xml;
+
+import javax.xml.transform.dom.DOMSource;
+
+public class XmlDOMSource implements XmlSource {
+
+    private DOMSource source;
+    
+    public XmlDOMSource(DOMSource source) {
+        this.source = source;
+    }
+
+    @Override
+    public void close() {
+        
+    }
+
+    @Override
+    public DOMSource getSource() {
+        return source;
+    }
+
+}
@@ -1,11 +1,11 @@
-package com.google.code.activetemplates.xml;
-
-import javax.xml.transform.Result;
-
-public interface XmlResult {
-    
-    public Result getResult();
-    
-    public void close();
-
-}
+package com.google.code.activetemplates.xml;
+
+import javax.xml.transform.Result;
+
+public interface XmlResult {
+    
+    public Result getResult();
+    
+    public void close();
+
+}
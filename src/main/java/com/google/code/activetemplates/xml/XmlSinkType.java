@@ -0,0 +1,49 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.code.activetemplates.xml;
+
+/**
+ * Kinds of sinks template compiler can write to an output stream or
+ * character writer.
+ * 
+ * @author sleepless
+ *
+ */
+public enum XmlSinkType {
+    
+    /**
+     * StAX event writer created by a namespace repairing output factory,
+     * the default
+     */
+    EVENT_WRITER,
+    
+    /**
+     * StAX cursor writer created by a namespace repairing output factory
+     */
+    STREAM_WRITER,
+    
+    /**
+     * Direct serialization into UTF-8 bytes or characters, 
+     * static markup of templates is written pre-encoded. Used only 
+     * when configured. Output is equivalent to the one of StAX writers,
+     * but may keep prefixes they would replace
+     * 
+     * @see SerializingEventWriter
+     */
+    DIRECT;
+    
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.code.activetemplates;
+
+import java.io.StringReader;
+
+import javax.xml.transform.stream.StreamSource;
+
+import com.google.code.activetemplates.xml.XmlSource;
+import com.google.code.activetemplates.xml.XmlStreamSource;
+
+/**
+ * Template read from a string
+ * 
+ * @author sleepless
+ */
+public class StringTemplate implements Template {
+
+    private final String name;
+    private final String text;
+    
+    public StringTemplate(String name, String text) {
+        this.name = name;
+        this.text = text;
+    }
+    
+    public String getName() {
+        return name;
+    }
+
+    public XmlSource createSource() {
+        return new XmlStreamSource(new StreamSource(new StringReader(text)));
+    }
+    
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.code.activetemplates.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+
+import com.google.code.activetemplates.TemplateModel;
+import com.google.code.activetemplates.impl.TemplateCompilerImpl;
+
+/**
+ * Reports bytes allocated per render of a loop heavy page by interpreted
+ * and compiled templates. Allocations are counted by the JVM for the
+ * rendering thread, so this only runs on JVMs which support 
+ * com.sun.management.ThreadMXBean, e.g. HotSpot.
+ * 
+ * Run it on different revisions to compare allocations before and after
+ * a change.
+ * 
+ * Usage: AllocationBenchmark [renders]
+ * 
+ * @author sleepless
+ */
+public class AllocationBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int renders = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        
+        Object bean = ManagementFactory.getThreadMXBean();
+        if(!(bean instanceof com.sun.management.ThreadMXBean)) {
+            System.out.println("Thread allocation counters are not supported by this JVM");
+            return;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        if(!threads.isThreadAllocatedMemorySupported()) {
+            System.out.println("Thread allocation counters are not supported by this JVM");
+            return;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        
+        TemplateModel model = Fixtures.createModel(50);
+        
+        TemplateCompilerImpl interpreted = new TemplateCompilerImpl();
+        TemplateCompilerImpl compiled = new TemplateCompilerImpl();
+        compiled.setCompiledTemplates(Collections.singleton(Fixtures.TABLE.getName()));
+        
+        report("interpreted", threads, interpreted, model, renders);
+        report("compiled", threads, compiled, model, renders);
+    }
+    
+    private static void report(String name, com.sun.management.ThreadMXBean threads, TemplateCompilerImpl tc, 
+            TemplateModel model, int renders) throws Exception {
+        
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        
+        // warm up, so that programs, plans, caches and output buffer are allocated
+        for(int i = 0; i < renders; i++) {
+            out.reset();
+            tc.compile(Fixtures.TABLE, model, out);
+        }
+        
+        long id = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(id);
+        for(int i = 0; i < renders; i++) {
+            out.reset();
+            tc.compile(Fixtures.TABLE, model, out);
+        }
+        long allocated = threads.getThreadAllocatedBytes(id) - before;
+        
+        System.out.println(String.format("%-12s %8d bytes per render, %d bytes of output", 
+                name, allocated / renders, out.size()));
+    }
+    
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.code.activetemplates.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.code.activetemplates.StringTemplate;
+import com.google.code.activetemplates.Template;
+import com.google.code.activetemplates.TemplateCompileException;
+import com.google.code.activetemplates.TemplateModel;
+import com.google.code.activetemplates.impl.TemplateCompilerImpl;
+
+/**
+ * Templates and models shared by benchmarks
+ * 
+ * @author sleepless
+ */
+class Fixtures {
+
+    static final String NS = "xmlns:at=\"http://code.google.com/p/activetemplates/ns/stdlib\"";
+    
+    /**
+     * Loop heavy page: a table of items with conditionals, 
+     * nested loops and templated attributes
+     */
+    static final Template TABLE = new StringTemplate("table", 
+            "<html " + NS + "><body><h1>${title}</h1><table>"
+            + "<at:each data=\"items\" value=\"#it\" index=\"#i\">"
+            + "<tr class=\"row${#i % 2}\"><td>${#it.name}</td><td>${#it.qty}</td>"
+            + "<at:conditional><at:if condition=\"#it.qty &gt; 10\"><td class=\"big\">big</td></at:if>"
+            + "<at:else><td>small</td></at:else></at:conditional>"
+            + "<at:each data=\"tags\" value=\"#tag\"><td><a href=\"/tag/${#tag}\">${#tag}</a></td></at:each>"
+            + "</tr></at:each></table><p>static footer</p></body></html>");
+    
+    public static class Item {
+        
+        private final String name;
+        private final int qty;
+        
+        Item(String name, int qty) {
+            this.name = name;
+            this.qty = qty;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public int getQty() {
+            return qty;
+        }
+    }
+    
+    static TemplateModel createModel(int items) {
+        List<Item> l = new ArrayList<Item>();
+        for(int i = 0; i < items; i++) {
+            l.add(new Item("item" + i, i));
+        }
+        List<String> tags = new ArrayList<String>();
+        tags.add("red");
+        tags.add("green");
+        
+        Map<String, Object> m = new HashMap<String, Object>();
+        m.put("title", "Items");
+        m.put("items", l);
+        m.put("tags", tags);
+        return new TemplateModel(m);
+    }
+    
+    static String render(TemplateCompilerImpl tc, Template t, TemplateModel model, ByteArrayOutputStream out) 
+            throws TemplateCompileException {
+        out.reset();
+        tc.compile(t, model, out);
+        try {
+            return out.toString("UTF-8");
+        } catch(UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.code.activetemplates.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.google.code.activetemplates.TemplateModel;
+import com.google.code.activetemplates.impl.ExpressionCache;
+import com.google.code.activetemplates.impl.TemplateCompilerImpl;
+
+/**
+ * Measures throughput of one shared template compiler rendered by 
+ * 1 to 64 threads. Throughput should grow with the number of threads
+ * up to the number of cores, if nothing on the render path is contended.
+ * Every rendered page is compared with a single threaded render.
+ * 
+ * Usage: ScalabilityBenchmark [max threads] [seconds per step]
+ * 
+ * @author sleepless
+ */
+public class ScalabilityBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        long millis = (args.length > 1 ? Long.parseLong(args[1]) : 2) * 1000L;
+        
+        final TemplateCompilerImpl tc = new TemplateCompilerImpl();
+        final TemplateModel model = Fixtures.createModel(50);
+        final String expected = Fixtures.render(tc, Fixtures.TABLE, model, new ByteArrayOutputStream());
+        
+        System.out.println("cores: " + Runtime.getRuntime().availableProcessors());
+        
+        // warm up
+        run(tc, model, expected, 1, millis);
+        
+        double base = 0;
+        for(int threads = 1; threads <= maxThreads; threads *= 2) {
+            ExpressionCache cache = tc.getExpressionCache();
+            long hits = cache.getHitCount();
+            long misses = cache.getMissCount();
+            
+            double rate = run(tc, model, expected, threads, millis);
+            if(threads == 1) {
+                base = rate;
+            }
+            System.out.println(String.format("%2d threads: %10.0f renders/s, speedup %5.2f, cache hits %d, misses %d", 
+                    threads, rate, rate / base, cache.getHitCount() - hits, cache.getMissCount() - misses));
+        }
+    }
+    
+    // renders for specified time in every thread, returns renders per second
+    private static double run(final TemplateCompilerImpl tc, final TemplateModel model, final String expected, 
+            int threads, final long millis) throws Exception {
+        
+        ExecutorService ex = Executors.newFixedThreadPool(threads);
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> results = new ArrayList<Future<Long>>();
+        
+        for(int i = 0; i < threads; i++) {
+            results.add(ex.submit(new Callable<Long>() {
+                public Long call() throws Exception {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    start.await();
+                    long end = System.currentTimeMillis() + millis;
+                    long count = 0;
+                    while(System.currentTimeMillis() < end) {
+                        String page = Fixtures.render(tc, Fixtures.TABLE, model, out);
+                        if(!page.equals(expected)) {
+                            throw new IllegalStateException("Concurrent render differs from single threaded one");
+                        }
+                        count++;
+                    }
+                    return count;
+                }
+            }));
+        }
+        
+        long t0 = System.nanoTime();
+        start.countDown();
+        long count = 0;
+        for(Future<Long> f: results) {
+            count += f.get();
+        }
+        long elapsed = System.nanoTime() - t0;
+        ex.shutdown();
+        
+        return count * 1e9 / elapsed;
+    }
+    
+}
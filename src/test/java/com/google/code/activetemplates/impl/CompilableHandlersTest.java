@@ -0,0 +1,118 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.code.activetemplates.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.google.code.activetemplates.StringTemplate;
+import com.google.code.activetemplates.TemplateCompileException;
+import com.google.code.activetemplates.TemplateModel;
+
+/**
+ * Compiled plans must render handlers of third party tag libraries, 
+ * compiled or not, the same way event interpreter does
+ * 
+ * @author sleepless
+ */
+public class CompilableHandlersTest {
+
+    private static final String NS = "xmlns:at=\"http://code.google.com/p/activetemplates/ns/stdlib\" "
+        + "xmlns:t=\"" + TestHandlerSPI.NAMESPACE + "\"";
+    
+    @Test
+    public void testCompiledElement() throws Exception {
+        assertCompiled("<r>[1][2big][3big]</r>", "<r><at:each data=\"items\" value=\"#it\">"
+                + "<t:bracket>${#it}<at:if condition=\"#it &gt; 1\">big</at:if></t:bracket></at:each></r>");
+        assertCompiled("<r>[[Ann]]</r>", "<r><t:bracket><t:bracket>${name}</t:bracket></t:bracket></r>");
+    }
+    
+    @Test
+    public void testCompiledAttribute() throws Exception {
+        assertCompiled("<r><p>2</p><p>3</p></r>", "<r><at:each data=\"items\" value=\"#it\">"
+                + "<p t:when=\"#it &gt; 1\">${#it}</p></at:each></r>");
+        assertCompiled("<r><p>[Ann]</p></r>", "<r><p t:when=\"true\"><t:bracket>${name}</t:bracket></p><q t:when=\"false\"/></r>");
+    }
+    
+    @Test
+    public void testBodyRenderedOnAnotherThread() throws Exception {
+        assertCompiled("<r>Ann[1][2][3]</r>", "<r><t:async>${name}<at:each data=\"items\" value=\"#it\">"
+                + "<t:bracket>${#it}</t:bracket></at:each></t:async></r>");
+    }
+    
+    @Test
+    public void testInterpretedSubtrees() throws Exception {
+        // handlers which can not be compiled run event interpreter over their subtree
+        assertParity("<r><at:each data=\"items\" value=\"#it\"><t:set var=\"#v\" value=\"#it * 2\"/>${#v},</at:each></r>",
+                "<r>2,4,6,</r>");
+        assertParity("<r><t:group>${name}<at:each data=\"items\" value=\"#it\"><b>${#it}</b></at:each></t:group>|"
+                + "<at:each data=\"items\" value=\"#it\"><t:group><t:bracket>${#it}</t:bracket></t:group></at:each></r>",
+                "<r>(Ann<b>1</b><b>2</b><b>3</b>)|([1])([2])([3])</r>");
+        assertParity("<r><t:bracket><t:group>${name}</t:group><p t:when=\"name == 'Ann'\">a</p></t:bracket></r>",
+                "<r>[(Ann)<p>a</p>]</r>");
+    }
+    
+    // renders template with interpreter and compiled plan, 
+    // which has to use compiled nodes of handlers
+    private static void assertCompiled(String expected, String template) throws TemplateCompileException {
+        TestHandlerSPI.compiledRenders.set(0);
+        assertParity(template, expected);
+        assertTrue(TestHandlerSPI.compiledRenders.get() > 0);
+    }
+    
+    private static void assertParity(String template, String expected) throws TemplateCompileException {
+        String t = template.replaceFirst("<r>", "<r " + NS + ">");
+        for(int folding = 0; folding < 2; folding++) {
+            int renders = TestHandlerSPI.compiledRenders.get();
+            assertEquals(t, expected, render(createCompiler(false, folding == 1), t));
+            assertEquals(renders, TestHandlerSPI.compiledRenders.get());
+            
+            TemplateCompilerImpl compiled = createCompiler(true, folding == 1);
+            assertEquals(t, expected, render(compiled, t));
+            assertEquals(t, expected, render(compiled, t));
+        }
+    }
+    
+    private static TemplateCompilerImpl createCompiler(boolean compiled, boolean folding) {
+        TemplateCompilerImpl tc = new TemplateCompilerImpl();
+        tc.setConstantFolding(folding);
+        if(compiled) {
+            tc.setCompiledTemplates(Collections.singleton("test"));
+        }
+        return tc;
+    }
+    
+    private static String render(TemplateCompilerImpl tc, String template) throws TemplateCompileException {
+        Map<String, Object> model = new HashMap<String, Object>();
+        model.put("name", "Ann");
+        model.put("items", Arrays.asList(1, 2, 3));
+        
+        StringWriter out = new StringWriter();
+        tc.compile(new StringTemplate("test", template), new TemplateModel(model), out);
+        return out.toString();
+    }
+    
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.code.activetemplates.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.google.code.activetemplates.StringTemplate;
+import com.google.code.activetemplates.Template;
+import com.google.code.activetemplates.TemplateCompileException;
+import com.google.code.activetemplates.TemplateModel;
+
+/**
+ * Renders templates with constant folding on and off, both must produce
+ * the same output
+ * 
+ * @author sleepless
+ */
+public class ConstantFolderTest {
+
+    private static final String NS = "xmlns:at=\"http://code.google.com/p/activetemplates/ns/stdlib\"";
+    
+    @Test
+    public void testText() throws Exception {
+        assertRenders("<r>abc<p class=\"2\" id=\"X\">qX</p></r>",
+                "<r>a${'b'}c<p class=\"${1+1}\" id=\"${x}\">${'q'}${x}</p></r>");
+    }
+    
+    @Test
+    public void testIfAttribute() throws Exception {
+        assertRenders("<r><p>t</p><p>d</p></r>",
+                "<r><p at:if=\"true\">t</p><p at:if=\"false\">f</p><p at:if=\"x == 'X'\">d</p></r>");
+    }
+    
+    @Test
+    public void testConstantBranches() throws Exception {
+        assertRenders("<r>A</r>", 
+                "<r><at:conditional><at:if condition=\"true\">A</at:if><at:else>B</at:else></at:conditional></r>");
+        assertRenders("<r>C</r>", 
+                "<r><at:conditional><at:if condition=\"false\">A</at:if>"
+                + "<at:else condition=\"false\">B</at:else><at:else>C</at:else></at:conditional></r>");
+    }
+    
+    @Test
+    public void testMixedBranches() throws Exception {
+        assertRenders("<r>B</r>", 
+                "<r><at:conditional><at:if condition=\"false\">A</at:if>"
+                + "<at:else condition=\"x == 'X'\">B</at:else><at:else>C</at:else></at:conditional></r>");
+        assertRenders("<r>C</r>", 
+                "<r><at:conditional><at:if condition=\"x == 'Y'\">A</at:if>"
+                + "<at:else condition=\"false\">B</at:else><at:else>C</at:else></at:conditional></r>");
+        assertRenders("<r>IE</r>", 
+                "<r><at:conditional><at:if condition=\"false\">A</at:if><at:else condition=\"true\">"
+                + "<at:if condition=\"x == 'X'\">I</at:if>E</at:else></at:conditional></r>");
+    }
+    
+    @Test
+    public void testNestedBranches() throws Exception {
+        assertRenders("<r>  x BN </r>", 
+                "<r><at:conditional> <at:if condition=\"1 &gt; 2\">A</at:if> x <at:else>B"
+                + "<at:conditional><at:if condition=\"true\">N</at:if></at:conditional></at:else> </at:conditional></r>");
+    }
+    
+    @Test
+    public void testElseAfterConditional() throws Exception {
+        assertRenders("<r>A</r>", 
+                "<r><at:conditional><at:if condition=\"true\">A</at:if></at:conditional><at:else>Z</at:else></r>");
+        assertRenders("<r> Z</r>", 
+                "<r><at:conditional><at:if condition=\"false\">A</at:if></at:conditional> <at:else>Z</at:else></r>");
+        assertRenders("<r>xZ</r>", 
+                "<r><at:conditional><at:if condition=\"false\">A</at:if><at:else condition=\"false\">B</at:else>"
+                + "</at:conditional>x<at:else>Z</at:else></r>");
+    }
+    
+    @Test
+    public void testNobr() throws Exception {
+        assertRenders("<r>   y  z   w</r>", 
+                "<r><at:nobr/><p at:if=\"false\">x</p>   y<at:nobr/>${'  z'}"
+                + "<at:conditional><at:if condition=\"true\"><at:nobr/></at:if></at:conditional>   w</r>");
+        assertRenders("<r>  Z</r>", 
+                "<r><at:nobr/><at:conditional><at:if condition=\"false\">A</at:if></at:conditional>  <at:else>Z</at:else></r>");
+    }
+    
+    @Test
+    public void testLoopVariables() throws Exception {
+        assertRenders("<r>${x}|${x}||1-2-</r>", 
+                "<r>${'$'}{x}|${'${x}'}|${null}|<at:each data=\"l\" value=\"#i\">${#i}${'-'}</at:each></r>");
+    }
+    
+    @Test
+    public void testGlobals() throws Exception {
+        assertRendersWithGlobals("<r>Site|SITE|<p title=\"Site\">x</p></r>", 
+                "<r>${#site.name}|${#site.name.toUpperCase()}|<p title=\"${#site.name}\">x</p></r>");
+    }
+    
+    @Test
+    public void testGlobalBranches() throws Exception {
+        assertRendersWithGlobals("<r>on<p>a</p></r>", 
+                "<r><at:conditional><at:if condition=\"#flag\">on</at:if><at:else>off</at:else></at:conditional>"
+                + "<p at:if=\"#flag\">a</p><p at:if=\"!#flag\">b</p></r>");
+        assertRendersWithGlobals("<r>B</r>", 
+                "<r><at:conditional><at:if condition=\"!#flag\">A</at:if>"
+                + "<at:else condition=\"#site.open\">B</at:else><at:else>C</at:else></at:conditional></r>");
+    }
+    
+    @Test
+    public void testGlobalsAreReadWhenLoaded() throws Exception {
+        Template template = new StringTemplate("test", "<r " + NS + ">${#site.name}<p at:if=\"#site.open\">o</p></r>");
+        for(int folding = 0; folding < 2; folding++) {
+            Site site = new Site();
+            TemplateCompilerImpl tc = createCompiler(folding == 1, site);
+            for(int i = 0; i < 3; i++) {
+                assertEquals("<r>Site<p>o</p></r>", render(tc, template));
+            }
+            // folded template reads globals once, when it is loaded
+            assertEquals(folding == 1 ? 2 : 6, site.reads);
+        }
+    }
+    
+    @Test
+    public void testLoopVariablesOfGlobalNames() throws Exception {
+        assertRendersWithGlobals("<r>true|1,2,|true</r>", 
+                "<r>${#flag}|<at:each data=\"l\" value=\"#flag\">${#flag},</at:each>|${#flag}</r>");
+        assertRendersWithGlobals("<r>1b2b</r>", 
+                "<r><at:each data=\"l\" value=\"#flag\">${#flag}<at:conditional><at:if condition=\"#flag == 1\">b</at:if>"
+                + "<at:else>b</at:else></at:conditional></at:each></r>");
+        assertRendersWithGlobals("<r>Site|1|2|</r>", 
+                "<r>${#site.name}|<at:each data=\"l\" value=\"#site\">${#site}|</at:each></r>");
+    }
+    
+    private static void assertRenders(String expected, String template) throws TemplateCompileException {
+        String t = template.replaceFirst("<r>", "<r " + NS + ">");
+        assertEquals("unfolded", expected, render(createCompiler(false, null), t));
+        assertEquals("folded", expected, render(createCompiler(true, null), t));
+    }
+    
+    private static void assertRendersWithGlobals(String expected, String template) throws TemplateCompileException {
+        String t = template.replaceFirst("<r>", "<r " + NS + ">");
+        assertEquals("unfolded", expected, render(createCompiler(false, new Site()), t));
+        assertEquals("folded", expected, render(createCompiler(true, new Site()), t));
+    }
+    
+    private static TemplateCompilerImpl createCompiler(boolean folding, Site site) {
+        TemplateCompilerImpl tc = new TemplateCompilerImpl();
+        tc.setConstantFolding(folding);
+        if(site != null) {
+            Map<String, Object> globals = new HashMap<String, Object>();
+            globals.put("site", site);
+            globals.put("flag", Boolean.TRUE);
+            tc.setGlobals(globals);
+        }
+        return tc;
+    }
+    
+    private static String render(TemplateCompilerImpl tc, String template) throws TemplateCompileException {
+        return render(tc, new StringTemplate("test", template));
+    }
+    
+    private static String render(TemplateCompilerImpl tc, Template template) throws TemplateCompileException {
+        Map<String, Object> model = new HashMap<String, Object>();
+        model.put("x", "X");
+        model.put("l", Arrays.asList(1, 2));
+        
+        StringWriter out = new StringWriter();
+        tc.compile(template, new TemplateModel(model), out);
+        return out.toString();
+    }
+    
+    /**
+     * Global, which counts reads of its properties
+     */
+    public static class Site {
+        
+        private int reads;
+        
+        public String getName() {
+            reads++;
+            return "Site";
+        }
+        
+        public boolean isOpen() {
+            reads++;
+            return true;
+        }
+    }
+    
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.code.activetemplates.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import com.google.code.activetemplates.TemplateModel;
+import com.google.code.activetemplates.spi.CompiledExpression;
+
+/**
+ * Compiled expressions must evaluate to the same values, and fail with 
+ * the same exceptions, as SpEL does
+ * 
+ * @author sleepless
+ */
+public class PathExpressionEngineTest {
+
+    private SpelExpressionEngine spel;
+    private PathExpressionEngine path;
+    private StandardEvaluationContext context;
+    
+    @Before
+    public void setUp() {
+        spel = new SpelExpressionEngine();
+        path = new PathExpressionEngine();
+        
+        context = new StandardEvaluationContext();
+        context.addPropertyAccessor(new TemplateModelPropertyAccessor());
+        context.getPropertyAccessors().add(0, new BeanPropertyAccessor());
+        
+        Map<String, Object> model = new HashMap<String, Object>();
+        model.put("title", "Hello");
+        model.put("bean", new Bean(5));
+        model.put("flag", Boolean.TRUE);
+        model.put("off", Boolean.FALSE);
+        model.put("none", null);
+        model.put("nan", Double.NaN);
+        List<Bean> items = new ArrayList<Bean>();
+        items.add(new Bean(1));
+        items.add(new Bean(2));
+        model.put("items", items);
+        context.setRootObject(new TemplateModel(model));
+        
+        context.setVariable("v", new Bean(3));
+        context.setVariable("i", 1);
+        context.setVariable("k", "k");
+    }
+    
+    @Test
+    public void testProperties() {
+        assertParity("title", "bean.name", "bean.qty", "bean.ok", "bean.child.qty", 
+                "bean.child.child", "bean . name", "#v", "#v.name", "#missing", "items[#i].name");
+    }
+    
+    @Test
+    public void testIndexes() {
+        assertParity("bean.list[0]", "bean.list[1]", "bean.list[2]", "bean.array[1]", "bean.array[#i]", 
+                "bean.map['k']", "bean.map['n']", "bean.map['missing']", "bean.map[#k]", "bean.name[0]", 
+                "items[0]");
+    }
+    
+    @Test
+    public void testLiterals() {
+        assertParity("1", "1L", "1.5", "1e3", "0x10", "'str'", "'it''s'", "true", "false", "null");
+    }
+    
+    @Test
+    public void testComparisons() {
+        assertParity("bean.qty > 3", "bean.qty >= 5", "bean.qty < 5", "bean.qty <= 4", "bean.qty != 5", 
+                "bean.qty == 5", "bean.big == 5", "bean.real == 5", "1 == 1L", "1 == 1.0", "'a' == 'a'", 
+                "bean.qty eq 5", "bean.qty ne 5", "bean.qty lt 9", "bean.qty gt 9", "bean.qty le 5", 
+                "bean.qty ge 6", "title > 'A'", "bean.name < 'z'", "bean.none == null", "null == bean.none", 
+                "bean == bean", "nan > 1", "nan == nan", "nan != nan", "bean.qty > 'x'");
+    }
+    
+    @Test
+    public void testBooleans() {
+        assertParity("flag", "!flag", "not flag", "NOT flag", "flag and bean.ok", "flag or off", 
+                "!flag or bean.qty > 1 and bean.ok", "(flag)", "(bean.qty > 1) and flag", "flag == true", 
+                "#i > 0 and #i < 5", "none and flag", "bean.qty and flag", "'true' and flag");
+    }
+    
+    @Test
+    public void testFailures() {
+        // failures on nulls and missing properties are reported as by spel
+        assertParity("bean.child.child.qty", "bean.missing", "missing", "missing.x", "#missing.x", 
+                "bean.list[5]", "bean.qty.x", "bean.set[0]");
+    }
+    
+    @Test
+    public void testSpelFallback() {
+        assertParity("1+2", "bean.name.length()", "T(java.lang.Math).PI", "bean?.name", "bean.child?.qty", 
+                "#root.title", "\"dq\"");
+    }
+    
+    @Test
+    public void testCommonExpressionsAreCompiled() {
+        for(String e: new String[]{ "title", "bean.child.qty", "#v.name", "items[#i].name", "bean.map['k']", 
+                "bean.qty > 3 and !flag", "'str'", "null"}) {
+            assertFalse(e, path.parseExpression(e) instanceof SpelExpressionEngine.SpelCompiledExpression);
+        }
+        assertTrue(path.parseExpression("bean.name.length()") instanceof SpelExpressionEngine.SpelCompiledExpression);
+    }
+    
+    @Test
+    public void testTemplates() {
+        for(String t: new String[]{ "${title}", "a ${title} b", "${bean.none}x${bean.name}", "plain", "", 
+                "${1+2} ${bean.qty}", "${bean.none}", "x${bean.child.child.qty}"}) {
+            assertEquals(t, evaluate(spel.parseTemplate(t), String.class), evaluate(path.parseTemplate(t), String.class));
+        }
+    }
+    
+    @Test
+    public void testGettersAreCalledOnce() {
+        Bean bean = new Bean(5);
+        context.setVariable("b", bean);
+        path.parseExpression("#b.child.qty").getValue(context, Object.class);
+        assertEquals(1, bean.childReads);
+        
+        try {
+            path.parseExpression("#b.child.child.qty").getValue(context, Object.class);
+        } catch(RuntimeException e) {
+            // null in the path
+        }
+        assertEquals(2, bean.childReads);
+    }
+    
+    @Test
+    public void testSetValue() {
+        path.parseExpression("#assigned").setValue(context, 42);
+        assertEquals(42, context.lookupVariable("assigned"));
+    }
+    
+    @Test
+    public void testRootObject() {
+        assertEquals("n", path.parseExpression("name").getValue(context, new Bean(1), String.class));
+    }
+    
+    private void assertParity(String... expressions) {
+        for(String e: expressions) {
+            for(Class<?> type: new Class<?>[]{ Object.class, String.class, Boolean.class }) {
+                assertEquals(e + " as " + type.getSimpleName(), 
+                        evaluate(spel.parseExpression(e), type), evaluate(path.parseExpression(e), type));
+            }
+        }
+    }
+    
+    // value and its class, or exception and its message
+    private String evaluate(CompiledExpression e, Class<?> type) {
+        try {
+            Object value = e.getValue(context, type);
+            return value == null ? "null" : value.getClass().getName() + ":" + value;
+        } catch(RuntimeException x) {
+            return x.getClass().getName() + ": " + x.getMessage();
+        }
+    }
+    
+    public static class Bean {
+        
+        public String name = "n";
+        public int qty;
+        public long big = 5L;
+        public double real = 5.0;
+        public Integer none;
+        public List<Object> list = Arrays.<Object>asList(1, "x", null);
+        public int[] array = {7, 8};
+        public Map<String, Object> map = new HashMap<String, Object>();
+        public Set<String> set = new HashSet<String>(Arrays.asList("a"));
+        
+        int childReads;
+        
+        Bean(int qty) {
+            this.qty = qty;
+            map.put("k", "v");
+            map.put("n", null);
+        }
+        
+        public boolean isOk() {
+            return true;
+        }
+        
+        public Bean getChild() {
+            childReads++;
+            return qty > 0 ? new Bean(0) : null;
+        }
+        
+        @Override
+        public String toString() {
+            return "Bean" + qty;
+        }
+    }
+    
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.code.activetemplates.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.code.activetemplates.StringTemplate;
+import com.google.code.activetemplates.TemplateModel;
+
+/**
+ * Checks which expressions and templates are memoized within a render
+ * 
+ * @author sleepless
+ */
+public class PureExpressionsTest {
+
+    private PureExpressions pure;
+    
+    @Before
+    public void setUp() {
+        pure = new PureExpressions(
+                new HashSet<String>(Arrays.asList("user", "page")), 
+                new HashSet<String>(Arrays.asList("site")), 100);
+    }
+    
+    @Test
+    public void testPaths() {
+        assertTrue(pure.isPure("user"));
+        assertTrue(pure.isPure("user.name"));
+        assertTrue(pure.isPure("user.address.city"));
+        assertTrue(pure.isPure("user?.name"));
+        assertTrue(pure.isPure("page.items[0].title"));
+        assertTrue(pure.isPure("page.labels['title']"));
+        assertTrue(pure.isPure("#site.name"));
+    }
+    
+    @Test
+    public void testLiteralsAndOperators() {
+        assertTrue(pure.isPure("'it''s'"));
+        assertTrue(pure.isPure("1.5e3 > 10"));
+        assertTrue(pure.isPure("true and not false"));
+        assertTrue(pure.isPure("user.age >= 18 and user.name != null"));
+        assertTrue(pure.isPure("user.age == 18 or user.age <= 3"));
+        assertTrue(pure.isPure("user.name eq 'x' or page.size gt 1"));
+        assertTrue(pure.isPure("!user.admin"));
+    }
+    
+    @Test
+    public void testImpureReferences() {
+        // other model entries and variables may change during a render
+        assertFalse(pure.isPure("items"));
+        assertFalse(pure.isPure("user.name == title"));
+        assertFalse(pure.isPure("#it"));
+        assertFalse(pure.isPure("#it.name"));
+        assertFalse(pure.isPure("#siteName"));
+    }
+    
+    @Test
+    public void testImpureOperations() {
+        assertFalse(pure.isPure("user.getName()"));
+        assertFalse(pure.isPure("(user.age)"));
+        assertFalse(pure.isPure("T(java.lang.Math).random()"));
+        assertFalse(pure.isPure("new java.util.Date()"));
+        assertFalse(pure.isPure("@bean"));
+        assertFalse(pure.isPure("user.name = 'x'"));
+        assertFalse(pure.isPure("#site = user"));
+        assertFalse(pure.isPure("\"quoted\""));
+        assertFalse(pure.isPure("'unterminated"));
+    }
+    
+    @Test
+    public void testStringLiteralsAreNotParsed() {
+        assertTrue(pure.isPure("user.name == 'items (#it) = new'"));
+    }
+    
+    @Test
+    public void testTemplates() {
+        assertTrue(pure.isPureTemplate("plain text"));
+        assertTrue(pure.isPureTemplate("Hello, ${user.name}!"));
+        assertTrue(pure.isPureTemplate("${user.name} of ${#site.name}"));
+        assertTrue(pure.isPureTemplate("${page.labels['}']} x"));
+        assertTrue(pure.isPureTemplate("${{'a','b'}[0]}"));
+        assertFalse(pure.isPureTemplate("${user.name} and ${title}"));
+        assertFalse(pure.isPureTemplate("${user.name"));
+        assertFalse(pure.isPureTemplate("${'unterminated}"));
+    }
+    
+    @Test
+    public void testDecisionsAreCached() {
+        PureExpressions small = new PureExpressions(new HashSet<String>(Arrays.asList("user")), 
+                new HashSet<String>(), 1);
+        for(int i = 0; i < 2; i++) {
+            assertTrue(small.isPure("user.name"));
+            assertFalse(small.isPure("title"));
+            assertTrue(small.isPureTemplate("${user.name}"));
+        }
+    }
+    
+    @Test
+    public void testMemoizedResultsAreConvertedPerUse() throws Exception {
+        // same expression is a condition first, a collection then
+        String template = "<r xmlns:at=\"http://code.google.com/p/activetemplates/ns/stdlib\">"
+            + "<at:if condition=\"yes\">Y</at:if><at:each data=\"yes\" value=\"#it\">[${#it}]</at:each>"
+            + "<at:each data=\"yes\" value=\"#it\">[${#it}]</at:each><at:if condition=\"yes\">Y</at:if></r>";
+        Map<String, Object> model = new HashMap<String, Object>();
+        model.put("yes", "yes");
+        
+        for(int compiled = 0; compiled < 2; compiled++) {
+            TemplateCompilerImpl tc = new TemplateCompilerImpl();
+            tc.setPureModelEntries(Collections.singleton("yes"));
+            if(compiled == 1) {
+                tc.setCompiledTemplates(Collections.singleton("test"));
+            }
+            StringWriter out = new StringWriter();
+            tc.compile(new StringTemplate("test", template), new TemplateModel(model), out);
+            assertEquals("<r>Y[yes][yes]Y</r>", out.toString());
+        }
+    }
+    
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.code.activetemplates.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.junit.Test;
+import org.springframework.context.support.StaticMessageSource;
+
+import com.google.code.activetemplates.LocalizedTemplate;
+import com.google.code.activetemplates.StringTemplate;
+import com.google.code.activetemplates.Template;
+import com.google.code.activetemplates.TemplateCompileException;
+import com.google.code.activetemplates.TemplateModel;
+
+/**
+ * Compiled render plans must write the same output as event interpreter
+ * 
+ * @author sleepless
+ */
+public class RenderPlanTest {
+
+    private static final String NS = "xmlns:at=\"http://code.google.com/p/activetemplates/ns/stdlib\"";
+    
+    @Test
+    public void testText() throws Exception {
+        assertParity("<r>static <b>text</b> ${name} &amp; ${name.length() > 2}<br/></r>");
+        assertParity("<r><a href=\"/u/${name}\" title=\"${missing}\" class=\"x\">${name}</a></r>");
+    }
+    
+    @Test
+    public void testLoops() throws Exception {
+        assertParity("<r><at:each data=\"items\" value=\"#it\" index=\"#i\"><li class=\"c${#i}\">${#it}</li></at:each></r>");
+        assertParity("<r><at:each data=\"rows\" value=\"#row\"><tr><at:each data=\"#row\" value=\"#cell\">"
+                + "<td>${#cell}</td></at:each></tr></at:each></r>");
+        assertParity("<r><at:each data=\"map\" value=\"#v\" key=\"#k\">${#k}=${#v};</at:each></r>");
+        assertParity("<r><at:each data=\"empty\" value=\"#it\">x</at:each>after</r>");
+    }
+    
+    @Test
+    public void testConditionals() throws Exception {
+        assertParity("<r><at:conditional><at:if condition=\"name == 'Ann'\">A</at:if><at:else>B</at:else></at:conditional></r>");
+        assertParity("<r><at:conditional><at:if condition=\"name == 'Bob'\">A</at:if>"
+                + "<at:else condition=\"items.size() > 2\">B</at:else><at:else>C</at:else></at:conditional></r>");
+        assertParity("<r><at:each data=\"items\" value=\"#it\"><at:conditional><at:if condition=\"#it &gt; 1\">big</at:if>"
+                + "<at:else>small</at:else></at:conditional></at:each></r>");
+        assertParity("<r><p at:if=\"name == 'Ann'\">shown</p><p at:if=\"false\">hidden</p></r>");
+        assertParity("<r><at:conditional><at:if condition=\"true\">A</at:if></at:conditional><at:else>Z</at:else></r>");
+    }
+    
+    @Test
+    public void testWhitespace() throws Exception {
+        assertParity("<r><at:nobr/>   a <at:container>  b</at:container><at:nobr/>  ${name}  </r>");
+    }
+    
+    @Test
+    public void testNamespaces() throws Exception {
+        assertParity("<html xmlns=\"http://www.w3.org/1999/xhtml\" " + NS + "><body><at:each data=\"items\" value=\"#it\">"
+                + "<p>${#it}<em>e</em></p></at:each></body></html>");
+        assertParity("<r " + NS + " xmlns:s=\"urn:s\"><s:a s:k=\"v\">${name}<s:b/></s:a><p xmlns=\"urn:d\"><q>1</q></p></r>");
+    }
+    
+    @Test
+    public void testMessages() throws Exception {
+        StaticMessageSource messages = new StaticMessageSource();
+        messages.addMessage("title", Locale.ENGLISH, "Hello");
+        messages.addMessage("greet", Locale.ENGLISH, "Hi {0}!");
+        
+        String template = "<r " + NS + "><at:message code=\"title\"/>|<at:message code=\"greet\" arguments=\"name\"/>|"
+            + "<at:message code=\"none\" default=\"${name}\"/></r>";
+        for(int folding = 0; folding < 2; folding++) {
+            Template t = new LocalizedTemplate(new StringTemplate("test", template), Locale.ENGLISH);
+            TemplateCompilerImpl interpreted = createCompiler(false, folding == 1);
+            TemplateCompilerImpl compiled = createCompiler(true, folding == 1);
+            interpreted.setMessageSource(messages);
+            compiled.setMessageSource(messages);
+            
+            String expected = render(interpreted, t);
+            assertEquals(expected, render(compiled, t));
+            assertEquals(expected, render(compiled, t));
+        }
+    }
+    
+    private static void assertParity(String template) throws TemplateCompileException {
+        String t = template.startsWith("<r>") ? template.replaceFirst("<r>", "<r " + NS + ">") : template;
+        for(int folding = 0; folding < 2; folding++) {
+            Template st = new StringTemplate("test", t);
+            String expected = render(createCompiler(false, folding == 1), st);
+            
+            TemplateCompilerImpl compiled = createCompiler(true, folding == 1);
+            // second render goes through the cached plan
+            assertEquals(t, expected, render(compiled, st));
+            assertEquals(t, expected, render(compiled, st));
+        }
+    }
+    
+    private static TemplateCompilerImpl createCompiler(boolean compiled, boolean folding) {
+        TemplateCompilerImpl tc = new TemplateCompilerImpl();
+        tc.setConstantFolding(folding);
+        if(compiled) {
+            tc.setCompiledTemplates(Collections.singleton("test"));
+        }
+        return tc;
+    }
+    
+    private static String render(TemplateCompilerImpl tc, Template t) throws TemplateCompileException {
+        Map<String, Object> model = new HashMap<String, Object>();
+        model.put("name", "Ann");
+        model.put("items", Arrays.asList(1, 2, 3));
+        model.put("rows", Arrays.asList(Arrays.asList("a", "b"), Arrays.asList("c")));
+        model.put("empty", Collections.emptyList());
+        Map<String, Object> map = new LinkedHashMap<String, Object>();
+        map.put("x", 1);
+        map.put("y", 2);
+        model.put("map", map);
+        
+        StringWriter out = new StringWriter();
+        tc.compile(t, new TemplateModel(model), out);
+        return out.toString();
+    }
+    
+}
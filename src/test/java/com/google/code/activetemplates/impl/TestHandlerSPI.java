@@ -0,0 +1,246 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.code.activetemplates.impl;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.StartElement;
+
+import com.google.code.activetemplates.events.AttributeEvent;
+import com.google.code.activetemplates.events.AttributeHandler;
+import com.google.code.activetemplates.events.ElementHandler;
+import com.google.code.activetemplates.events.EndElementEvent;
+import com.google.code.activetemplates.events.StartElementEvent;
+import com.google.code.activetemplates.spi.CompilableAttributeHandler;
+import com.google.code.activetemplates.spi.CompilableElementHandler;
+import com.google.code.activetemplates.spi.HandlerSPI;
+import com.google.code.activetemplates.spi.RenderContext;
+import com.google.code.activetemplates.spi.RenderNode;
+
+/**
+ * Third party tag library of tests, registered through 
+ * META-INF/services of test resources
+ * 
+ * @author sleepless
+ */
+public class TestHandlerSPI implements HandlerSPI {
+
+    public static final String NAMESPACE = "urn:activetemplates:test";
+    
+    // number of renders of compiled nodes
+    public static final AtomicInteger compiledRenders = new AtomicInteger();
+    
+    public Map<QName, AttributeHandler> getAttributeHandlers() {
+        Map<QName, AttributeHandler> attributes = new HashMap<QName, AttributeHandler>();
+        attributes.put(WhenAt.ATTRIBUTE, new WhenAt());
+        return attributes;
+    }
+
+    public Map<QName, ElementHandler> getElementHandlers() {
+        Map<QName, ElementHandler> elements = new HashMap<QName, ElementHandler>();
+        elements.put(BracketEl.ELEMENT, new BracketEl());
+        elements.put(AsyncEl.ELEMENT, new AsyncEl());
+        elements.put(SetEl.ELEMENT, new SetEl());
+        elements.put(GroupEl.ELEMENT, new GroupEl());
+        return elements;
+    }
+
+    public Set<String> getExcludedNamespaces() {
+        return Collections.singleton(NAMESPACE);
+    }
+
+    public String getProvider() {
+        return "test";
+    }
+    
+    /**
+     * Writes children in brackets. Compiled node renders them through 
+     * a context of its own, which wraps context of the render
+     */
+    public static class BracketEl implements CompilableElementHandler {
+        
+        public static final QName ELEMENT = new QName(NAMESPACE, "bracket");
+        
+        public QName[] getElements() {
+            return new QName[]{ ELEMENT };
+        }
+
+        public Outcome processStart(StartElementEvent e) throws XMLStreamException {
+            e.getEventStream().queueEvent(e.getEventStream().getEventFactory().createCharacters("["));
+            return Outcome.PROCESS_CHILDREN;
+        }
+
+        public void processEnd(EndElementEvent e) throws XMLStreamException {
+            e.getEventStream().queueEvent(e.getEventStream().getEventFactory().createCharacters("]"));
+        }
+
+        public RenderNode compile(StartElement element, final RenderNode body) {
+            return new RenderNode() {
+                public void render(RenderContext context) throws XMLStreamException {
+                    compiledRenders.incrementAndGet();
+                    context.write(context.getElementFactory().createCharacters("["));
+                    body.render(wrap(context));
+                    context.write(context.getElementFactory().createCharacters("]"));
+                }
+            };
+        }
+        
+        private static RenderContext wrap(final RenderContext context) {
+            return (RenderContext) Proxy.newProxyInstance(RenderContext.class.getClassLoader(), 
+                    new Class<?>[]{ RenderContext.class }, new InvocationHandler() {
+                
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    try {
+                        return method.invoke(context, args);
+                    } catch(InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }
+            });
+        }
+    }
+    
+    /**
+     * Writes children as they are. Compiled node renders them on another thread
+     */
+    public static class AsyncEl implements CompilableElementHandler {
+        
+        public static final QName ELEMENT = new QName(NAMESPACE, "async");
+        
+        public QName[] getElements() {
+            return new QName[]{ ELEMENT };
+        }
+
+        public Outcome processStart(StartElementEvent e) {
+            return Outcome.PROCESS_CHILDREN;
+        }
+
+        public void processEnd(EndElementEvent e) {
+        }
+
+        public RenderNode compile(StartElement element, final RenderNode body) {
+            return new RenderNode() {
+                public void render(final RenderContext context) throws XMLStreamException {
+                    compiledRenders.incrementAndGet();
+                    final Throwable[] error = new Throwable[1];
+                    Thread t = new Thread() {
+                        @Override
+                        public void run() {
+                            try {
+                                body.render(context);
+                            } catch(Throwable e) {
+                                error[0] = e;
+                            }
+                        }
+                    };
+                    t.start();
+                    try {
+                        t.join();
+                    } catch(InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    if(error[0] != null) {
+                        throw new IllegalStateException(error[0]);
+                    }
+                }
+            };
+        }
+    }
+    
+    /**
+     * Renders element only if condition holds, as at:if attribute does
+     */
+    public static class WhenAt implements CompilableAttributeHandler {
+        
+        public static final QName ATTRIBUTE = new QName(NAMESPACE, "when");
+        
+        public QName[] getAttributes() {
+            return new QName[]{ ATTRIBUTE };
+        }
+
+        public Outcome processAttribute(AttributeEvent e) {
+            return e.parseExpression(e.getEvent().getValue(), Boolean.class) ? null : Outcome.PROCESS_NONE;
+        }
+
+        public RenderNode compile(Attribute attribute, final RenderNode element) {
+            final String condition = attribute.getValue();
+            return new RenderNode() {
+                public void render(RenderContext context) throws XMLStreamException {
+                    compiledRenders.incrementAndGet();
+                    if(context.parseExpression(condition, Boolean.class)) {
+                        element.render(context);
+                    }
+                }
+            };
+        }
+    }
+    
+    /**
+     * Assigns value of an expression to a variable, can not be compiled
+     */
+    public static class SetEl implements ElementHandler {
+        
+        public static final QName ELEMENT = new QName(NAMESPACE, "set");
+        
+        public QName[] getElements() {
+            return new QName[]{ ELEMENT };
+        }
+
+        public Outcome processStart(StartElementEvent e) {
+            StartElement se = e.getEvent();
+            Object value = e.parseExpression(se.getAttributeByName(new QName("value")).getValue(), Object.class);
+            e.setExpressionValue(se.getAttributeByName(new QName("var")).getValue(), value);
+            return Outcome.PROCESS_SIBLINGS;
+        }
+
+        public void processEnd(EndElementEvent e) {
+        }
+    }
+    
+    /**
+     * Writes children in parentheses, can not be compiled
+     */
+    public static class GroupEl implements ElementHandler {
+        
+        public static final QName ELEMENT = new QName(NAMESPACE, "group");
+        
+        public QName[] getElements() {
+            return new QName[]{ ELEMENT };
+        }
+
+        public Outcome processStart(StartElementEvent e) throws XMLStreamException {
+            e.getEventStream().queueEvent(e.getEventStream().getEventFactory().createCharacters("("));
+            return Outcome.PROCESS_CHILDREN;
+        }
+
+        public void processEnd(EndElementEvent e) throws XMLStreamException {
+            e.getEventStream().queueEvent(e.getEventStream().getEventFactory().createCharacters(")"));
+        }
+    }
+    
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.code.activetemplates.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Namespace;
+import javax.xml.stream.events.XMLEvent;
+
+import org.codehaus.stax2.XMLOutputFactory2;
+import org.junit.Test;
+
+/**
+ * Direct writers and pre-encoded segments must write the same markup 
+ * as StAX writers and events they were created from. Documents do not 
+ * redeclare prefixes of attributes, which StAX writers replace
+ * 
+ * @see SinksTest#testRedeclaredPrefixes()
+ * 
+ * @author sleepless
+ */
+public class SerializingEventWriterTest {
+
+    private static final String[] DOCUMENTS = {
+        "<r>text <b class=\"c\">bold</b><br/></r>",
+        "<r a=\"&lt;&amp;&gt;&quot;'\">&lt;&amp;&gt;\"' <![CDATA[raw <cdata>]]><!-- comment --></r>",
+        "<r>café 日本 😀</r>",
+        "<html xmlns=\"http://www.w3.org/1999/xhtml\"><body><p>x<em>e</em></p></body></html>",
+        "<r xmlns:s=\"urn:s\"><s:a s:k=\"v\"><s:b>t</s:b></s:a><p xmlns=\"urn:d\"><q>1</q><w/></p><z/></r>",
+        "<r xmlns:p=\"urn:p\"><p:a/><p:b xmlns:p=\"urn:q\"><p:c>q</p:c></p:b><p:e/></r>",
+        "<r><a xmlns=\"urn:d\"><d xmlns=\"\">n</d></a></r>",
+    };
+    
+    @Test
+    public void testSerializingWriters() throws Exception {
+        for(String doc: DOCUMENTS) {
+            List<XMLEvent> events = read(doc);
+            StringWriter expected = new StringWriter();
+            write(events, createFactory().createXMLEventWriter(expected));
+            
+            StringWriter w = new StringWriter();
+            write(events, new CharEventWriter(w));
+            assertEquals(doc, expected.toString(), w.toString());
+            
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            write(events, new Utf8EventWriter(out));
+            assertEquals(doc, expected.toString(), out.toString("UTF-8"));
+        }
+    }
+    
+    @Test
+    public void testSegments() throws Exception {
+        for(String doc: DOCUMENTS) {
+            List<XMLEvent> events = read(doc);
+            StringWriter w = new StringWriter();
+            write(events, new CharEventWriter(w));
+            String expected = w.toString();
+            
+            // every run of events after the document element is started
+            for(int from = 1; from < events.size(); from++) {
+                for(int to = from + 1; to <= events.size(); to++) {
+                    assertSegment(doc, expected, events, from, to, null);
+                    assertSegment(doc, expected, events, from, to, context(events.subList(0, from)));
+                }
+            }
+        }
+    }
+    
+    @Test
+    public void testSegmentsUnderOtherNamespaces() throws Exception {
+        List<XMLEvent> events = read("<r xmlns=\"urn:a\"><p>x</p></r>");
+        List<XMLEvent> body = events.subList(1, 4);
+        NamespaceContext context = context(read("<r xmlns=\"urn:b\"/>").subList(0, 1));
+        
+        for(String outer: new String[]{ "<r xmlns=\"urn:b\">", "<r xmlns=\"urn:a\">", "<r>" }) {
+            List<XMLEvent> start = read(outer + "</r>");
+            
+            StringWriter expected = new StringWriter();
+            CharEventWriter w = new CharEventWriter(expected);
+            w.add(start.get(0));
+            for(XMLEvent e: body) {
+                w.add(e);
+            }
+            w.add(start.get(1));
+            w.flush();
+            
+            StringWriter actual = new StringWriter();
+            w = new CharEventWriter(actual);
+            w.add(start.get(0));
+            w.writeSegment(SerializingEventWriter.createSegment(new ArrayList<XMLEvent>(body), context));
+            w.add(start.get(1));
+            w.flush();
+            assertEquals(outer, expected.toString(), actual.toString());
+        }
+    }
+    
+    @Test
+    public void testUnsupportedSegments() throws Exception {
+        List<XMLEvent> events = read("<r><a/></r>");
+        assertNull(SerializingEventWriter.createSegment(events.subList(2, 4)));
+        assertNull(SerializingEventWriter.createSegment(Collections.<XMLEvent>emptyList()));
+        assertNotNull(SerializingEventWriter.createSegment(events.subList(0, 2)));
+    }
+    
+    private static void assertSegment(String doc, String expected, List<XMLEvent> events, int from, int to, 
+            NamespaceContext context) throws XMLStreamException {
+        
+        SerializingEventWriter.Segment s = SerializingEventWriter.createSegment(
+                new ArrayList<XMLEvent>(events.subList(from, to)), context);
+        if(s == null) {
+            return;
+        }
+        
+        StringWriter chars = new StringWriter();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for(SerializingEventWriter w: new SerializingEventWriter[]{ new CharEventWriter(chars), new Utf8EventWriter(bytes) }) {
+            for(int i = 0; i < events.size(); i++) {
+                if(i == from) {
+                    w.writeSegment(s);
+                    i = to - 1;
+                } else {
+                    w.add(events.get(i));
+                }
+            }
+            w.flush();
+        }
+        
+        String message = doc + " [" + from + ", " + to + ")";
+        assertEquals(message, expected, chars.toString());
+        try {
+            assertEquals(message, expected, bytes.toString("UTF-8"));
+        } catch(UnsupportedEncodingException e) {
+            throw new AssertionError(e);
+        }
+    }
+    
+    /**
+     * Returns namespaces bound by elements left open by specified events
+     */
+    private static NamespaceContext context(List<XMLEvent> events) {
+        final List<String[]> bindings = new ArrayList<String[]>();
+        final List<Integer> depths = new ArrayList<Integer>();
+        int depth = 0;
+        for(XMLEvent e: events) {
+            if(e.isStartElement()) {
+                depth++;
+                Iterator<?> it = e.asStartElement().getNamespaces();
+                while(it.hasNext()) {
+                    Namespace ns = (Namespace) it.next();
+                    bindings.add(new String[]{ ns.getPrefix(), ns.getNamespaceURI() });
+                    depths.add(depth);
+                }
+            } else if(e.isEndElement()) {
+                while(!depths.isEmpty() && depths.get(depths.size() - 1) == depth) {
+                    depths.remove(depths.size() - 1);
+                    bindings.remove(bindings.size() - 1);
+                }
+                depth--;
+            }
+        }
+        
+        return new NamespaceContext() {
+            
+            public String getNamespaceURI(String prefix) {
+                for(int i = bindings.size() - 1; i >= 0; i--) {
+                    if(bindings.get(i)[0].equals(prefix)) {
+                        return bindings.get(i)[1];
+                    }
+                }
+                return XMLConstants.NULL_NS_URI;
+            }
+            
+            public String getPrefix(String uri) {
+                for(int i = bindings.size() - 1; i >= 0; i--) {
+                    if(bindings.get(i)[1].equals(uri)) {
+                        return bindings.get(i)[0];
+                    }
+                }
+                return null;
+            }
+            
+            public Iterator<?> getPrefixes(String uri) {
+                String prefix = getPrefix(uri);
+                return prefix == null 
+                    ? Collections.emptyList().iterator() 
+                    : Collections.singleton(prefix).iterator();
+            }
+        };
+    }
+    
+    private static List<XMLEvent> read(String doc) throws XMLStreamException {
+        XMLEventReader r = XMLInputFactory.newInstance().createXMLEventReader(new StringReader(doc));
+        List<XMLEvent> events = new ArrayList<XMLEvent>();
+        while(r.hasNext()) {
+            XMLEvent e = r.nextEvent();
+            if(!e.isStartDocument() && !e.isEndDocument()) {
+                events.add(e);
+            }
+        }
+        r.close();
+        return events;
+    }
+    
+    private static void write(List<XMLEvent> events, XMLEventWriter w) throws XMLStreamException {
+        for(XMLEvent e: events) {
+            w.add(e);
+        }
+        w.flush();
+    }
+    
+    private static XMLOutputFactory createFactory() {
+        XMLOutputFactory factory = XMLOutputFactory.newInstance();
+        factory.setProperty(XMLOutputFactory2.IS_REPAIRING_NAMESPACES, true);
+        return factory;
+    }
+    
+}
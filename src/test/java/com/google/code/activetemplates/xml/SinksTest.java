@@ -0,0 +1,143 @@
+/*
+ * Copyright 2009 Anton Tanasenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.code.activetemplates.xml;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.XMLEvent;
+
+import org.junit.Test;
+
+import com.google.code.activetemplates.StringTemplate;
+import com.google.code.activetemplates.TemplateModel;
+import com.google.code.activetemplates.impl.TemplateCompilerImpl;
+
+/**
+ * All sinks must write the same markup, except for prefixes StAX writers
+ * generate where direct sink keeps those of the template
+ * 
+ * @author sleepless
+ */
+public class SinksTest {
+
+    private static final String NS = "xmlns:at=\"http://code.google.com/p/activetemplates/ns/stdlib\"";
+    
+    private static final String[] TEMPLATES = {
+        "<r " + NS + ">${x} <b title=\"${x}\">${l}</b><br/></r>",
+        "<html xmlns=\"http://www.w3.org/1999/xhtml\" " + NS + "><body><at:each data=\"l\" value=\"#i\">"
+            + "<p class=\"c${#i}\">${#i}<em>e</em></p></at:each></body></html>",
+        "<r " + NS + " xmlns:s=\"urn:s\"><s:a s:k=\"v\">${x}<s:b/></s:a><p xmlns=\"urn:d\"><q>1</q>${x}</p><z/></r>",
+        "<r " + NS + "><a xmlns:k=\"urn:k\" k:x=\"1\"><b k:y=\"2\">t</b>${x}<k:c/></a><c k:z=\"3\" xmlns:k=\"urn:k2\"/></r>",
+    };
+    
+    @Test
+    public void testSinkTypes() throws Exception {
+        for(String t: TEMPLATES) {
+            String expected = null;
+            for(XmlSinkType type: XmlSinkType.values()) {
+                for(int compiled = 0; compiled < 2; compiled++) {
+                    String[] outputs = render(type, compiled == 1, t);
+                    if(expected == null) {
+                        expected = outputs[0];
+                    }
+                    assertEquals(type + " " + t, expected, outputs[0]);
+                    assertEquals(type + " " + t, expected, outputs[1]);
+                }
+            }
+        }
+    }
+    
+    @Test
+    public void testRedeclaredPrefixes() throws Exception {
+        // direct sink keeps declarations of the template, woodstox binds
+        // attributes of a redeclared prefix to a generated one
+        String t = "<a xmlns:p=\"urn:p\" p:x=\"1\"><b xmlns:p=\"urn:q\" p:y=\"2\"/></a>";
+        String stax = "<a xmlns:p=\"urn:p\" p:x=\"1\"><b xmlns:wstxns1=\"urn:q\" wstxns1:y=\"2\"/></a>";
+        for(XmlSinkType type: XmlSinkType.values()) {
+            for(int compiled = 0; compiled < 2; compiled++) {
+                String[] outputs = render(type, compiled == 1, t);
+                String expected = type == XmlSinkType.DIRECT ? t : stax;
+                assertEquals(type.toString(), expected, outputs[0]);
+                assertEquals(type.toString(), expected, outputs[1]);
+            }
+        }
+        assertEquals(describe(t), describe(stax));
+    }
+    
+    // returns output of template written to a writer and to a stream
+    private static String[] render(XmlSinkType type, boolean compiled, String template) throws Exception {
+        TemplateCompilerImpl tc = new TemplateCompilerImpl();
+        tc.setSinkType(type);
+        if(compiled) {
+            tc.setCompiledTemplates(Collections.singleton("test"));
+        }
+        
+        StringWriter w = new StringWriter();
+        tc.compile(new StringTemplate("test", template), createModel(), w);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        tc.compile(new StringTemplate("test", template), createModel(), out);
+        
+        return new String[]{ stripDeclaration(w.toString()), stripDeclaration(out.toString("UTF-8")) };
+    }
+    
+    // returns expanded names and values of elements and attributes of document
+    private static String describe(String document) throws XMLStreamException {
+        XMLEventReader r = XMLInputFactory.newInstance().createXMLEventReader(new StringReader(document));
+        StringBuilder sb = new StringBuilder();
+        while(r.hasNext()) {
+            XMLEvent e = r.nextEvent();
+            if(e.isStartElement()) {
+                sb.append('<').append(e.asStartElement().getName());
+                Iterator<?> it = e.asStartElement().getAttributes();
+                while(it.hasNext()) {
+                    Attribute a = (Attribute) it.next();
+                    sb.append(' ').append(a.getName()).append('=').append(a.getValue());
+                }
+                sb.append('>');
+            } else if(e.isEndElement()) {
+                sb.append("</").append(e.asEndElement().getName()).append('>');
+            }
+        }
+        r.close();
+        return sb.toString();
+    }
+    
+    private static TemplateModel createModel() {
+        Map<String, Object> model = new HashMap<String, Object>();
+        model.put("x", "<&>\"' café");
+        model.put("l", Arrays.asList(1, 2));
+        return new TemplateModel(model);
+    }
+    
+    private static String stripDeclaration(String s) {
+        return s.replaceFirst("^<\\?xml[^>]*\\?>", "");
+    }
+    
+}